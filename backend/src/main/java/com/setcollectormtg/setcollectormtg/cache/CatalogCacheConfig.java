@@ -0,0 +1,62 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cachés en memoria del catálogo (sets y cartas), que solo cambia con las
+ * importaciones y la edición de administradores.
+ *
+ * Cada caché es una caché Caffeine con tamaño máximo y estadísticas de
+ * aciertos, fallos y desalojos. CatalogCacheInvalidator borra las entradas
+ * afectadas cuando se publica un CatalogChangedEvent; además caducan a los
+ * expireAfterWrite de guardarse, para que una entrada que se escape de la
+ * invalidación no se sirva indefinidamente.
+ */
+@Configuration
+@EnableCaching
+public class CatalogCacheConfig {
+
+    /** Lista completa de sets (una sola entrada). */
+    public static final String ALL_SETS = "allSets";
+    /** Sets por ID. */
+    public static final String SETS_BY_ID = "setsById";
+    /** Sets por código. */
+    public static final String SETS_BY_CODE = "setsByCode";
+    /** Cartas por ID. */
+    public static final String CARDS_BY_ID = "cardsById";
+    /** Cartas de cada set, por ID del set. */
+    public static final String SET_CARDS = "setCards";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.sets.max-size:5000}") long maxSets,
+            @Value("${app.cache.cards.max-size:50000}") long maxCards,
+            @Value("${app.cache.set-cards.max-size:200}") long maxSetCardLists,
+            @Value("${app.cache.expire-after-write:1h}") Duration expireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(ALL_SETS, build(1, expireAfterWrite));
+        cacheManager.registerCustomCache(SETS_BY_ID, build(maxSets, expireAfterWrite));
+        cacheManager.registerCustomCache(SETS_BY_CODE, build(maxSets, expireAfterWrite));
+        cacheManager.registerCustomCache(CARDS_BY_ID, build(maxCards, expireAfterWrite));
+        cacheManager.registerCustomCache(SET_CARDS, build(maxSetCardLists, expireAfterWrite));
+        return cacheManager;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> build(long maximumSize,
+            Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+}
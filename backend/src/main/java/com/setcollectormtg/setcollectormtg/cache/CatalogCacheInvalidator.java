@@ -0,0 +1,121 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.setcollectormtg.setcollectormtg.dto.CacheStatsDto;
+import com.setcollectormtg.setcollectormtg.dto.SetMtgDto;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.model.SetMtg;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invalida las cachés del catálogo al recibir un CatalogChangedEvent.
+ *
+ * Los eventos publicados en una transacción se aplican al confirmarla, para que
+ * una lectura posterior no vuelva a cachear los datos anteriores; los
+ * publicados fuera de una transacción se aplican en el acto. Un cambio en un
+ * set borra la lista de sets, las entradas por código que apuntan a ese set y
+ * las demás entradas del set; un cambio en una carta borra solo esa carta.
+ * Las mismas cartas y sets se descartan también de la caché de segundo nivel
+ * de Hibernate.
+ *
+ * Todo se borra clave a clave y no vaciando la caché: con sync=true, borrar una
+ * clave espera a la carga en curso de esa clave y descarta su resultado, que
+ * pudo leer los datos anteriores al cambio, mientras que invalidateAll no ve
+ * las cargas en curso y las deja guardar su resultado después.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheInvalidator {
+
+    private static final List<String> CACHE_NAMES = List.of(CatalogCacheConfig.ALL_SETS,
+            CatalogCacheConfig.SETS_BY_ID, CatalogCacheConfig.SETS_BY_CODE, CatalogCacheConfig.CARDS_BY_ID,
+            CatalogCacheConfig.SET_CARDS);
+
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<String, LongAdder> invalidations = new ConcurrentHashMap<>();
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.setIds().isEmpty()) {
+            // getAllSets no tiene parámetros: su única entrada usa la clave vacía
+            evict(CatalogCacheConfig.ALL_SETS, SimpleKey.EMPTY);
+            evictSetCodes(event.setIds());
+            for (Long setId : event.setIds()) {
+                evict(CatalogCacheConfig.SETS_BY_ID, setId);
+                evict(CatalogCacheConfig.SET_CARDS, setId);
+                entityManagerFactory.getCache().evict(SetMtg.class, setId);
+            }
+        }
+        for (Long cardId : event.cardIds()) {
+            evict(CatalogCacheConfig.CARDS_BY_ID, cardId);
+            // Las importaciones escriben las cartas con JDBC, sin pasar por la caché de segundo nivel
+            entityManagerFactory.getCache().evict(Card.class, cardId);
+        }
+        log.debug("Cachés del catálogo invalidadas: sets {}, {} cartas", event.setIds(), event.cardIds().size());
+    }
+
+    /**
+     * Devuelve las estadísticas de cada caché del catálogo.
+     */
+    public List<CacheStatsDto> stats() {
+        return CACHE_NAMES.stream()
+                .map(name -> {
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(name);
+                    CacheStats stats = cache.stats();
+                    return CacheStatsDto.builder()
+                            .name(name)
+                            .size(cache.estimatedSize())
+                            .hits(stats.hitCount())
+                            .misses(stats.missCount())
+                            .hitRate(stats.hitRate())
+                            .evictions(stats.evictionCount())
+                            .invalidations(invalidations.computeIfAbsent(name, key -> new LongAdder()).sum())
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * Borra las entradas por código de los sets. El código puede haber cambiado,
+     * así que se buscan por el ID del set guardado en cada entrada.
+     */
+    private void evictSetCodes(Set<Long> setIds) {
+        List<Object> codes = nativeCache(CatalogCacheConfig.SETS_BY_CODE).asMap().entrySet().stream()
+                .filter(entry -> entry.getValue() instanceof SetMtgDto set && setIds.contains(set.getSetId()))
+                .map(Map.Entry::getKey)
+                .toList();
+        for (Object code : codes) {
+            evict(CatalogCacheConfig.SETS_BY_CODE, code);
+        }
+    }
+
+    private void evict(String name, Object key) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null && cache.evictIfPresent(key)) {
+            invalidations.computeIfAbsent(name, k -> new LongAdder()).increment();
+        }
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
@@ -0,0 +1,44 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Evento que se publica al cambiar el catálogo, para invalidar las cachés.
+ *
+ * setIds son los sets cuyos datos o lista de cartas han cambiado y cardIds las
+ * cartas modificadas o borradas. Si se publica dentro de una transacción, la
+ * invalidación se aplica al confirmarla.
+ */
+public record CatalogChangedEvent(Set<Long> setIds, Set<Long> cardIds) {
+
+    public CatalogChangedEvent {
+        setIds = Set.copyOf(setIds);
+        cardIds = Set.copyOf(cardIds);
+    }
+
+    /**
+     * Cambio en los datos de un set o en su lista de cartas.
+     */
+    public static CatalogChangedEvent set(Long setId) {
+        return new CatalogChangedEvent(Set.of(setId), Set.of());
+    }
+
+    /**
+     * Cambio en unas cartas; setIds son los sets a los que pertenecen o
+     * pertenecían (se ignoran los null de cartas sin set).
+     */
+    public static CatalogChangedEvent cards(Collection<Long> setIds, Collection<Long> cardIds) {
+        return new CatalogChangedEvent(
+                setIds.stream().filter(Objects::nonNull).collect(Collectors.toSet()),
+                Set.copyOf(cardIds));
+    }
+
+    public static CatalogChangedEvent card(Long cardId, Long... setIds) {
+        return cards(Arrays.asList(setIds), List.of(cardId));
+    }
+}
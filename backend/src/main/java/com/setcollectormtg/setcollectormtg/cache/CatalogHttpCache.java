@@ -0,0 +1,79 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones condicionales (ETag / If-None-Match) para las lecturas públicas
+ * del catálogo.
+ *
+ * El ETag se deriva de la versión del catálogo, que sube con cada cambio
+ * confirmado de sets o cartas, y del momento de arranque, para que no se
+ * repita tras un reinicio. Como todas las respuestas del catálogo cambian a la
+ * vez, la comprobación se hace antes de leer nada: si el cliente ya tiene la
+ * versión actual se responde 304 sin cuerpo, sin acceder a la base de datos ni
+ * serializar.
+ *
+ * Cache-Control permite guardar las respuestas a cachés compartidas (un CDN o
+ * el nginx del frontend). Con max-age 0 los navegadores revalidan en cada
+ * visita; s-maxage deja a las cachés compartidas servirlas sin revalidar
+ * durante ese tiempo.
+ */
+@Component
+public class CatalogHttpCache {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final CacheControl cacheControl;
+
+    public CatalogHttpCache(CatalogSnapshotService catalogSnapshotService,
+            @Value("${app.catalog.http.max-age:0s}") Duration maxAge,
+            @Value("${app.catalog.http.shared-max-age:0s}") Duration sharedMaxAge) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        CacheControl control = CacheControl.maxAge(maxAge).mustRevalidate().cachePublic();
+        this.cacheControl = sharedMaxAge.isZero() ? control : control.sMaxAge(sharedMaxAge);
+    }
+
+    /**
+     * Responde 304 si el If-None-Match de la petición coincide con la versión
+     * actual del catálogo y, si no, 200 con el cuerpo que da body. La versión
+     * se lee antes que el cuerpo, así que este nunca es más antiguo que su ETag.
+     *
+     * @param request Petición en curso
+     * @param body    Lectura del cuerpo; solo se invoca si hace falta
+     * @return Respuesta con ETag y Cache-Control
+     */
+    public <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        String etag = etag(catalogSnapshotService.catalogVersion());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+
+    /**
+     * ETag de una versión del catálogo.
+     */
+    public String etag(long catalogVersion) {
+        return "\"" + epoch + "-" + catalogVersion + "\"";
+    }
+
+    /**
+     * ETag de una variante de la representación (por ejemplo, comprimida) en
+     * una versión del catálogo.
+     */
+    public String etag(long catalogVersion, String variant) {
+        return "\"" + epoch + "-" + catalogVersion + "-" + variant + "\"";
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+}
@@ -0,0 +1,174 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.setcollectormtg.setcollectormtg.dto.CacheStatsDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas JSON ya serializadas de las lecturas más pesadas del catálogo
+ * (la lista de sets y las cartas de cada set).
+ *
+ * Cada recurso se serializa una vez por versión del catálogo con el
+ * ObjectMapper de Spring MVC, a UTF-8, y se guarda junto a su variante gzip;
+ * las peticiones siguientes copian esos bytes a la respuesta sin recorrer
+ * objetos. La versión forma parte de la clave, así que un cambio en el
+ * catálogo deja las entradas anteriores sin uso y el tamaño máximo, en bytes,
+ * las acaba desalojando.
+ *
+ * Las respuestas llevan el mismo ETag y Cache-Control que CatalogHttpCache,
+ * con un sufijo en el ETag si el cliente acepta gzip, y el 304 se resuelve
+ * antes de buscar o serializar nada.
+ */
+@Component
+public class CatalogJsonCache {
+
+    public static final String NAME = "catalogJson";
+
+    // Por debajo de este tamaño gzip apenas ahorra y no se guarda la variante
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogHttpCache catalogHttpCache;
+    private final Cache<PayloadKey, EncodedPayload> payloads;
+
+    public CatalogJsonCache(ObjectMapper objectMapper, CatalogSnapshotService catalogSnapshotService,
+            CatalogHttpCache catalogHttpCache,
+            @Value("${app.cache.json.max-size:64MB}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.catalogHttpCache = catalogHttpCache;
+        this.payloads = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((PayloadKey key, EncodedPayload payload) -> payload.weight())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Escribe un recurso del catálogo en la respuesta: 304 si If-None-Match
+     * coincide con la versión actual y, si no, los bytes guardados para esa
+     * versión, en gzip si el cliente lo acepta. Si no están, body se serializa
+     * y se guarda. Las excepciones de body se propagan sin haber escrito nada.
+     *
+     * @param resource Identificador del recurso, por ejemplo "sets" o "sets/42/cards"
+     * @param body     Lectura del contenido; solo se invoca si no está en la caché
+     * @param request  Petición en curso
+     * @param response Respuesta en la que se escriben los bytes
+     * @throws IOException Si falla la escritura en la respuesta
+     */
+    public void write(String resource, Supplier<?> body, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        long version = catalogSnapshotService.catalogVersion();
+        boolean acceptsGzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Cada codificación es una representación distinta y necesita su propio ETag fuerte
+        String etag = acceptsGzip ? catalogHttpCache.etag(version, "gz") : catalogHttpCache.etag(version);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, catalogHttpCache.cacheControl().getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        EncodedPayload payload = payloads.get(new PayloadKey(resource, version), key -> encode(body.get()));
+        boolean gzip = acceptsGzip && payload.gzip() != null;
+        byte[] bytes = gzip ? payload.gzip() : payload.json();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = payloads.stats();
+        return CacheStatsDto.builder()
+                .name(NAME)
+                .size(payloads.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .invalidations(0)
+                .build();
+    }
+
+    private EncodedPayload encode(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new EncodedPayload(json, json.length >= GZIP_MIN_BYTES ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = buffer.toByteArray();
+        return compressed.length < json.length ? compressed : null;
+    }
+
+    /**
+     * Indica si Accept-Encoding admite gzip, descartando "gzip;q=0".
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private record PayloadKey(String resource, long version) {
+    }
+
+    private record EncodedPayload(byte[] json, byte[] gzip) {
+
+        private int weight() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
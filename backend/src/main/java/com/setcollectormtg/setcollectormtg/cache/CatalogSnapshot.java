@@ -0,0 +1,209 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.setcollectormtg.setcollectormtg.dto.CardDto;
+import com.setcollectormtg.setcollectormtg.dto.SetMtgDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Copia inmutable y compacta del catálogo de sets y cartas.
+ *
+ * Las cartas se guardan en un array de registros con campos primitivos,
+ * ordenado por ID, junto a un long[] con los ID para localizarlas por búsqueda
+ * binaria; cada set guarda las posiciones de sus cartas en ese array. Los
+ * textos que se repiten entre cartas (rareza, tipo, coste, nombre y texto de
+ * las reimpresiones) se comparten en una sola instancia.
+ *
+ * Una vez construida no cambia, así que se lee desde cualquier hilo sin
+ * bloqueos. Los DTO se crean en cada lectura y el llamante puede modificarlos.
+ */
+public final class CatalogSnapshot {
+
+    // Valor de los campos enteros que en la base de datos son NULL
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final long generation;
+    private final long[] cardIds;
+    private final CardEntry[] cards;
+    private final long[] setIds;
+    private final SetEntry[] sets;
+    private final Map<String, SetEntry> setsByCode;
+
+    private CatalogSnapshot(long generation, CardEntry[] cards, SetEntry[] sets) {
+        this.generation = generation;
+        this.cards = cards;
+        this.cardIds = Arrays.stream(cards).mapToLong(CardEntry::cardId).toArray();
+        this.sets = sets;
+        this.setIds = Arrays.stream(sets).mapToLong(SetEntry::setId).toArray();
+        Map<String, SetEntry> byCode = new HashMap<>(sets.length * 2);
+        for (SetEntry set : sets) {
+            byCode.put(set.setCode(), set);
+        }
+        this.setsByCode = Map.copyOf(byCode);
+    }
+
+    /**
+     * Número de cambios del catálogo que reflejaba la base de datos al leerla.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    public int cardCount() {
+        return cards.length;
+    }
+
+    public int setCount() {
+        return sets.length;
+    }
+
+    public Optional<CardDto> card(long cardId) {
+        int position = Arrays.binarySearch(cardIds, cardId);
+        return position >= 0 ? Optional.of(cards[position].toDto()) : Optional.empty();
+    }
+
+    /**
+     * Todas las cartas en orden de ID.
+     */
+    public List<CardDto> cards() {
+        List<CardDto> dtos = new ArrayList<>(cards.length);
+        forEachCard(dtos::add);
+        return dtos;
+    }
+
+    /**
+     * Entrega las cartas una a una en orden de ID, sin crear la lista completa.
+     */
+    public void forEachCard(Consumer<CardDto> consumer) {
+        for (CardEntry card : cards) {
+            consumer.accept(card.toDto());
+        }
+    }
+
+    /**
+     * Todos los sets en orden de ID.
+     */
+    public List<SetMtgDto> sets() {
+        List<SetMtgDto> dtos = new ArrayList<>(sets.length);
+        for (SetEntry set : sets) {
+            dtos.add(set.toDto());
+        }
+        return dtos;
+    }
+
+    public Optional<SetMtgDto> set(long setId) {
+        SetEntry set = findSet(setId);
+        return set != null ? Optional.of(set.toDto()) : Optional.empty();
+    }
+
+    public Optional<SetMtgDto> setByCode(String setCode) {
+        SetEntry set = setsByCode.get(setCode);
+        return set != null ? Optional.of(set.toDto()) : Optional.empty();
+    }
+
+    /**
+     * Cartas de un set en orden de ID, o vacío si el set no existe.
+     */
+    public Optional<List<CardDto>> cardsOfSet(long setId) {
+        SetEntry set = findSet(setId);
+        if (set == null) {
+            return Optional.empty();
+        }
+        List<CardDto> dtos = new ArrayList<>(set.cardPositions().length);
+        for (int position : set.cardPositions()) {
+            dtos.add(cards[position].toDto());
+        }
+        return Optional.of(dtos);
+    }
+
+    private SetEntry findSet(long setId) {
+        int position = Arrays.binarySearch(setIds, setId);
+        return position >= 0 ? sets[position] : null;
+    }
+
+    static Builder builder(long generation) {
+        return new Builder(generation);
+    }
+
+    private record CardEntry(long cardId, String name, String rarity, String oracleText, int manaValue,
+            String manaCost, String cardType, String imageUrl, long setId) {
+
+        private CardDto toDto() {
+            return new CardDto(cardId, name, rarity, oracleText, manaValue != NONE ? manaValue : null, manaCost,
+                    cardType, imageUrl, setId != 0 ? setId : null);
+        }
+    }
+
+    private record SetEntry(long setId, String setCode, String name, int totalCards, LocalDate releaseDate,
+            int[] cardPositions) {
+
+        private SetMtgDto toDto() {
+            SetMtgDto dto = new SetMtgDto();
+            dto.setSetId(setId);
+            dto.setSetCode(setCode);
+            dto.setName(name);
+            dto.setTotalCards(totalCards != NONE ? totalCards : null);
+            dto.setReleaseDate(releaseDate);
+            return dto;
+        }
+    }
+
+    /**
+     * Acumula los sets y las cartas leídos en orden de ID y construye la
+     * instantánea. No es seguro para varios hilos.
+     */
+    static final class Builder {
+
+        private final long generation;
+        private final List<SetEntry> sets = new ArrayList<>();
+        private final List<CardEntry> cards = new ArrayList<>();
+        private final Map<String, String> strings = new HashMap<>();
+
+        private Builder(long generation) {
+            this.generation = generation;
+        }
+
+        void addSet(long setId, String setCode, String name, Integer totalCards, LocalDate releaseDate) {
+            sets.add(new SetEntry(setId, setCode, name, totalCards != null ? totalCards : NONE, releaseDate, null));
+        }
+
+        void addCard(long cardId, String name, String rarity, String oracleText, Double manaValue, String manaCost,
+                String cardType, String imageUrl, Long setId) {
+            cards.add(new CardEntry(cardId, share(name), share(rarity), share(oracleText),
+                    manaValue != null ? manaValue.intValue() : NONE, share(manaCost), share(cardType), imageUrl,
+                    setId != null ? setId : 0L));
+        }
+
+        CatalogSnapshot build() {
+            CardEntry[] cardArray = cards.toArray(CardEntry[]::new);
+            Map<Long, List<Integer>> positionsBySet = new HashMap<>(sets.size() * 2);
+            for (int position = 0; position < cardArray.length; position++) {
+                if (cardArray[position].setId() != 0) {
+                    positionsBySet.computeIfAbsent(cardArray[position].setId(), id -> new ArrayList<>())
+                            .add(position);
+                }
+            }
+            SetEntry[] setArray = new SetEntry[sets.size()];
+            for (int i = 0; i < setArray.length; i++) {
+                SetEntry set = sets.get(i);
+                int[] positions = positionsBySet.getOrDefault(set.setId(), List.of()).stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                setArray[i] = new SetEntry(set.setId(), share(set.setCode()), set.name(), set.totalCards(),
+                        set.releaseDate(), positions);
+            }
+            return new CatalogSnapshot(generation, cardArray, setArray);
+        }
+
+        private String share(String value) {
+            return value != null ? strings.computeIfAbsent(value, v -> v) : null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica la instantánea del catálogo que sirven las lecturas públicas de sets
+ * y cartas.
+ *
+ * La instantánea se construye en un hilo propio al arrancar y se publica con
+ * una sola escritura volatile, así que los lectores nunca bloquean ni ven una
+ * a medio construir. Cada CatalogChangedEvent la marca como desactualizada y
+ * programa una reconstrucción cuando el catálogo lleva rebuildDelay sin
+ * cambios, de modo que una importación la reconstruye una vez al terminar y no
+ * tras cada bloque. Mientras está desactualizada, current() devuelve vacío y
+ * las lecturas pasan por los servicios, con su caché y la base de datos.
+ *
+ * Se carga con JDBC por lotes ordenados por ID, en una transacción de solo
+ * lectura para que sets y cartas sean coherentes entre sí.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotService {
+
+    private static final int LOAD_BATCH_SIZE = 2000;
+
+    private static final String SETS_SQL = "SELECT set_id, set_code, name, total_cards, release_date"
+            + " FROM set_mtg ORDER BY set_id";
+    private static final String CARDS_SQL = "SELECT card_id, name, rarity, oracle_text, mana_value, mana_cost,"
+            + " card_type, image_url, set_id FROM card WHERE card_id > ? ORDER BY card_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long rebuildDelayNanos;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CatalogSnapshot snapshot;
+    // Cambios del catálogo confirmados; la instantánea está al día si se construyó con el último
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile long lastChangeNanos;
+
+    public CatalogSnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${app.catalog.snapshot.rebuild-delay:2s}") Duration rebuildDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildDelayNanos = rebuildDelay.toNanos();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild(0);
+    }
+
+    // Después de CatalogCacheInvalidator: con la versión nueva las cachés ya no
+    // deben tener datos anteriores
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        changes.incrementAndGet();
+        lastChangeNanos = System.nanoTime();
+        scheduleRebuild(rebuildDelayNanos);
+    }
+
+    /**
+     * Versión del catálogo: el número de cambios confirmados desde el arranque.
+     */
+    public long catalogVersion() {
+        return changes.get();
+    }
+
+    /**
+     * Devuelve la instantánea si refleja todos los cambios confirmados del
+     * catálogo, o vacío si aún no se ha construido o hay cambios pendientes.
+     */
+    public Optional<CatalogSnapshot> current() {
+        CatalogSnapshot current = snapshot;
+        return current != null && current.generation() == changes.get() ? Optional.of(current) : Optional.empty();
+    }
+
+    /**
+     * Construye la instantánea con el contenido actual de la base de datos y la
+     * publica. Si falla, se conserva la anterior.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long generation = changes.get();
+        CatalogSnapshot built;
+        try {
+            built = readOnlyTransaction.execute(status -> load(generation));
+        } catch (RuntimeException e) {
+            log.error("Error construyendo la instantánea del catálogo: {}", e.getMessage(), e);
+            return;
+        }
+        snapshot = built;
+        log.info("Instantánea del catálogo construida con {} sets y {} cartas en {} ms", built.setCount(),
+                built.cardCount(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CatalogSnapshot load(long generation) {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder(generation);
+        jdbcTemplate.query(SETS_SQL, rs -> {
+            Date releaseDate = rs.getDate("release_date");
+            builder.addSet(rs.getLong("set_id"), rs.getString("set_code"), rs.getString("name"),
+                    rs.getObject("total_cards", Integer.class), releaseDate != null ? releaseDate.toLocalDate() : null);
+        });
+
+        long[] lastId = { 0L };
+        int read;
+        do {
+            int[] count = { 0 };
+            jdbcTemplate.query(CARDS_SQL, rs -> {
+                lastId[0] = rs.getLong("card_id");
+                builder.addCard(lastId[0], rs.getString("name"), rs.getString("rarity"), rs.getString("oracle_text"),
+                        rs.getObject("mana_value", Double.class), rs.getString("mana_cost"),
+                        rs.getString("card_type"), rs.getString("image_url"), rs.getObject("set_id", Long.class));
+                count[0]++;
+            }, lastId[0], LOAD_BATCH_SIZE);
+            read = count[0];
+        } while (read == LOAD_BATCH_SIZE);
+        return builder.build();
+    }
+
+    private void scheduleRebuild(long delayNanos) {
+        if (!executor.isShutdown() && rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::rebuildWhenQuiet, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void rebuildWhenQuiet() {
+        long quiet = System.nanoTime() - lastChangeNanos;
+        if (snapshot != null && quiet < rebuildDelayNanos) {
+            executor.schedule(this::rebuildWhenQuiet, rebuildDelayNanos - quiet, TimeUnit.NANOSECONDS);
+            return;
+        }
+        // Los cambios que lleguen durante la construcción programan otra
+        rebuildScheduled.set(false);
+        rebuild();
+    }
+}
@@ -0,0 +1,82 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Caché de segundo nivel de Hibernate, con JCache sobre Caffeine.
+ *
+ * Guarda las entidades Card y SetMtg, que casi solo cambian con las
+ * importaciones, la colección de roles de cada usuario, que se carga en cada
+ * petición autenticada, y los resultados de las consultas marcadas como
+ * cacheables. Las regiones se crean aquí con su tamaño máximo; si alguna
+ * entidad pide una región que no existe, el arranque falla en vez de crear una
+ * caché sin límite. La región de marcas de tiempo de las tablas, que invalida
+ * la caché de consultas, no tiene límite: tiene una entrada por tabla.
+ *
+ * Cada contexto de Spring usa su propio CachingProvider, de modo que las
+ * cachés no se comparten entre contextos (por ejemplo, en los tests). Las
+ * estadísticas de Hibernate se activan para exponer los aciertos por región.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String CARD_REGION = "cards";
+    public static final String SET_REGION = "sets";
+    public static final String USER_ROLES_REGION = "userRoles";
+
+    /** Regiones de datos y de consultas, en el orden en que se muestran sus estadísticas. */
+    public static final List<String> REGIONS = List.of(CARD_REGION, SET_REGION, USER_ROLES_REGION,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+            RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.hibernate.cards.max-size:50000}") long maxCards,
+            @Value("${app.cache.hibernate.sets.max-size:5000}") long maxSets,
+            @Value("${app.cache.hibernate.user-roles.max-size:10000}") long maxUserRoles,
+            @Value("${app.cache.hibernate.queries.max-size:1000}") long maxQueries) {
+        CachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        create(cacheManager, CARD_REGION, OptionalLong.of(maxCards));
+        create(cacheManager, SET_REGION, OptionalLong.of(maxSets));
+        create(cacheManager, USER_ROLES_REGION, OptionalLong.of(maxUserRoles));
+        create(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, OptionalLong.of(maxQueries));
+        create(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, OptionalLong.empty());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            // Sin el resumen de métricas que se registra al cerrar cada sesión
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    private static void create(CacheManager cacheManager, String region, OptionalLong maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
@@ -0,0 +1,68 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.setcollectormtg.setcollectormtg.dto.CacheStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Estadísticas de las regiones de la caché de segundo nivel de Hibernate,
+ * con el mismo formato que las de las cachés del catálogo.
+ */
+@Component
+public class HibernateCacheStatistics {
+
+    private static final String PREFIX = "hibernate.";
+
+    private final Statistics statistics;
+    private final CacheManager hibernateCacheManager;
+
+    public HibernateCacheStatistics(EntityManagerFactory entityManagerFactory, CacheManager hibernateCacheManager) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.hibernateCacheManager = hibernateCacheManager;
+    }
+
+    /**
+     * Devuelve aciertos, fallos y entradas de cada región según las
+     * estadísticas de Hibernate. Los desalojos por tamaño no se cuentan y
+     * quedan a 0.
+     */
+    public List<CacheStatsDto> stats() {
+        return HibernateCacheConfig.REGIONS.stream()
+                .map(this::regionStats)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private CacheStatsDto regionStats(String region) {
+        CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+        if (stats == null) {
+            return null;
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        return CacheStatsDto.builder()
+                .name(PREFIX + region)
+                .size(size(region))
+                .hits(hits)
+                .misses(misses)
+                .hitRate(hits + misses > 0 ? (double) hits / (hits + misses) : 1.0)
+                .evictions(0)
+                .invalidations(0)
+                .build();
+    }
+
+    private long size(String region) {
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+        return cache != null
+                ? cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize()
+                : 0;
+    }
+}
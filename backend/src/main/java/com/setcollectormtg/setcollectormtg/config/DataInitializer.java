@@ -2,14 +2,24 @@ package com.setcollectormtg.setcollectormtg.config;
 
 import com.setcollectormtg.setcollectormtg.enums.Role;
 import com.setcollectormtg.setcollectormtg.model.User;
+import com.setcollectormtg.setcollectormtg.repository.CardBatchRepository;
+import com.setcollectormtg.setcollectormtg.repository.CardRepository;
 import com.setcollectormtg.setcollectormtg.repository.UserRepository;
+import com.setcollectormtg.setcollectormtg.util.CardNameNormalizer;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Componente que inicializa datos por defecto en la aplicación.
@@ -20,12 +30,64 @@ import java.util.Set;
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
 
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final CardBatchRepository cardBatchRepository;
     private final PasswordEncoder passwordEncoder;
 
     @Override
     public void run(String... args) throws Exception {
         createDefaultAdminUser();
+        backfillCardColorMasks();
+        backfillCardSortNames();
+    }
+
+    /**
+     * Calcula la máscara de colores de las cartas guardadas antes de que existiera
+     * la columna color_mask. Procesa las cartas por lotes y agrupa los IDs por
+     * máscara, de modo que cada lote cuesta como mucho 32 UPDATE.
+     */
+    private void backfillCardColorMasks() {
+        int updated = 0;
+        List<Object[]> batch;
+        do {
+            batch = cardRepository.findIdAndManaCostWithoutColorMask(PageRequest.ofSize(BACKFILL_BATCH_SIZE));
+            Map<Integer, List<Long>> idsByMask = new TreeMap<>();
+            for (Object[] row : batch) {
+                int colorMask = ManaCostParser.colorMask((String) row[1]);
+                idsByMask.computeIfAbsent(colorMask, mask -> new ArrayList<>()).add((Long) row[0]);
+            }
+            idsByMask.forEach(cardRepository::updateColorMask);
+            updated += batch.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Máscara de colores calculada para {} cartas existentes", updated);
+        }
+    }
+
+    /**
+     * Calcula la clave de ordenación por nombre de las cartas guardadas antes de
+     * que existiera la columna sort_name, con un UPDATE por lotes de cartas.
+     */
+    private void backfillCardSortNames() {
+        int updated = 0;
+        List<Object[]> batch;
+        do {
+            batch = cardRepository.findIdAndNameWithoutSortName(PageRequest.ofSize(BACKFILL_BATCH_SIZE));
+            Map<Long, String> sortNames = new LinkedHashMap<>();
+            for (Object[] row : batch) {
+                sortNames.put((Long) row[0], CardNameNormalizer.sortKey((String) row[1]));
+            }
+            cardBatchRepository.updateSortNames(sortNames);
+            updated += batch.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Clave de ordenación por nombre calculada para {} cartas existentes", updated);
+        }
     }
 
     /**
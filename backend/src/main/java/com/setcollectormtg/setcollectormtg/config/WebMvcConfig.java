@@ -70,7 +70,10 @@ public class WebMvcConfig implements WebMvcConfigurer {
     }
 
     /**
-     * Configura los límites de tamaño para la carga de archivos
+     * Configura los límites de tamaño para la carga de archivos a partir de
+     * spring.servlet.multipart.max-file-size y max-request-size (10MB si no se
+     * indican). Al definir este bean Spring Boot no aplica esas propiedades por
+     * su cuenta, así que se leen aquí.
      * 
      * @return MultipartConfigElement con la configuración
      */
@@ -78,11 +81,13 @@ public class WebMvcConfig implements WebMvcConfigurer {
     public MultipartConfigElement multipartConfigElement() {
         MultipartConfigFactory factory = new MultipartConfigFactory();
 
-        // Establecer tamaño máximo por archivo (10MB)
-        factory.setMaxFileSize(DataSize.ofMegabytes(10));
+        // Establecer tamaño máximo por archivo
+        factory.setMaxFileSize(DataSize.parse(
+                environment.getProperty("spring.servlet.multipart.max-file-size", "10MB")));
 
-        // Establecer tamaño máximo de la solicitud (10MB)
-        factory.setMaxRequestSize(DataSize.ofMegabytes(10));
+        // Establecer tamaño máximo de la solicitud
+        factory.setMaxRequestSize(DataSize.parse(
+                environment.getProperty("spring.servlet.multipart.max-request-size", "10MB")));
 
         return factory.createMultipartConfig();
     }
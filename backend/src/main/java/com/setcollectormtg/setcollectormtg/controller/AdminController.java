@@ -1,6 +1,15 @@
 package com.setcollectormtg.setcollectormtg.controller;
 
-import com.setcollectormtg.setcollectormtg.service.CardImportService;
+import com.setcollectormtg.setcollectormtg.cache.CatalogCacheInvalidator;
+import com.setcollectormtg.setcollectormtg.cache.CatalogJsonCache;
+import com.setcollectormtg.setcollectormtg.cache.HibernateCacheStatistics;
+import com.setcollectormtg.setcollectormtg.dto.CacheStatsDto;
+import com.setcollectormtg.setcollectormtg.dto.ImportJobDto;
+import com.setcollectormtg.setcollectormtg.dto.UploadSessionDto;
+import com.setcollectormtg.setcollectormtg.enums.ImportFileFormat;
+import com.setcollectormtg.setcollectormtg.service.ImportJobService;
+import com.setcollectormtg.setcollectormtg.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -15,9 +24,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/admin")
@@ -25,15 +37,24 @@ import java.util.UUID;
 @Slf4j
 public class AdminController {
 
-    private final CardImportService cardImportService;
+    private final ImportJobService importJobService;
+    private final UploadSessionService uploadSessionService;
+    private final CatalogCacheInvalidator catalogCacheInvalidator;
+    private final CatalogJsonCache catalogJsonCache;
+    private final HibernateCacheStatistics hibernateCacheStatistics;
 
     /**
-     * Endpoint to upload a JSON file with cards and process it.
+     * Endpoint to upload a JSON file with cards, plain or compressed (.json.gz,
+     * .json.xz or .zip), and queue it for import.
+     * The import runs in the background; the response carries the job ID to
+     * poll with GET /admin/cards/import/{jobId}. With bulk=true the file is an
+     * AllPrintings-style dump holding every set under data, keyed by set code.
      * Only accessible for administrators.
      */
     @PostMapping(value = "/cards/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Map<String, Object>> importCardsFromJson(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> importCardsFromJson(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "bulk", defaultValue = "false") boolean bulk) {
         log.info("Request received to import cards from JSON file: {}", file.getOriginalFilename());
         Map<String, Object> response = new HashMap<>();
         
@@ -45,41 +66,54 @@ public class AdminController {
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Verify it's a JSON file
-        if (!file.getOriginalFilename().toLowerCase().endsWith(".json")) {
+        // Verify it's a JSON file, plain or compressed
+        ImportFileFormat format;
+        try {
+            format = ImportFileFormat.fromFileName(file.getOriginalFilename());
+        } catch (IllegalArgumentException e) {
             log.warn("Attempt to upload non-JSON file: {}", file.getOriginalFilename());
             response.put("success", false);
-            response.put("message", "Only JSON files are allowed");
+            response.put("message", "Only .json, .json.gz, .json.xz and .zip files are allowed");
             return ResponseEntity.badRequest().body(response);
         }
         
         Path tempFilePath = null;
+        boolean submitted = false;
         try {
-            // Create a temporary file to save the JSON
-            String filename = UUID.randomUUID().toString() + ".json";
+            // Create a temporary file to save the upload; it is kept compressed and
+            // the extension tells the importer how to decompress it
+            String filename = UUID.randomUUID().toString() + format.extension();
             tempFilePath = Paths.get(System.getProperty("java.io.tmpdir"), filename);
-            Files.write(tempFilePath, file.getBytes());
+            // The servlet container has already spooled the upload to disk; transferTo
+            // moves that file instead of copying it when both are on the same file system
+            file.transferTo(tempFilePath.toFile());
             
             log.info("File temporarily saved at: {}", tempFilePath);
             log.info("File size: {} bytes", file.getSize());
             
-            // Process the JSON file
-            cardImportService.importSetFromJson(tempFilePath.toString());
-            
-            log.info("Import completed successfully");
+            // The job takes ownership of the temporary file and deletes it when done
+            ImportJobDto job = importJobService.submit(tempFilePath, file.getOriginalFilename(), bulk);
+            submitted = true;
             
             response.put("success", true);
-            response.put("message", "Cards imported successfully");
-            return ResponseEntity.ok(response);
+            response.put("message", "Import job queued");
+            response.put("jobId", job.getJobId());
+            response.put("job", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
             
+        } catch (RejectedExecutionException e) {
+            log.warn("Import rejected, queue is full: {}", file.getOriginalFilename());
+            response.put("success", false);
+            response.put("message", "Too many imports in progress, try again later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
             log.error("Error importing cards: {}", e.getMessage(), e);
             response.put("success", false);
             response.put("message", "Error importing cards: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         } finally {
-            // Delete temporary file if it exists
-            if (tempFilePath != null) {
+            // Delete temporary file if it was not handed over to a job
+            if (tempFilePath != null && !submitted) {
                 try {
                     Files.deleteIfExists(tempFilePath);
                     log.info("Temporary file deleted: {}", tempFilePath);
@@ -89,4 +123,108 @@ public class AdminController {
             }
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Returns the status of an import job: cards parsed and written, throughput
+     * in cards per second, estimated seconds left and, once finished, the
+     * result or the error.
+     * Only accessible for administrators.
+     */
+    @GetMapping(value = "/cards/import/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(jobId));
+    }
+
+    /**
+     * Starts a chunked upload for import files too large for a single multipart
+     * request. Chunks are then sent with PUT /admin/cards/uploads/{uploadId}
+     * and the upload is finished with POST .../complete.
+     * Only accessible for administrators.
+     */
+    @PostMapping(value = "/cards/uploads", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UploadSessionDto> initiateUpload(@RequestParam String fileName,
+            @RequestParam(defaultValue = "false") boolean bulk,
+            @RequestParam(required = false) Long totalSize) throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(uploadSessionService.initiate(fileName, bulk, totalSize));
+    }
+
+    /**
+     * Returns the state of a chunked upload. After a dropped connection the
+     * client resumes from the returned offset.
+     * Only accessible for administrators.
+     */
+    @GetMapping(value = "/cards/uploads/{uploadId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UploadSessionDto> getUpload(@PathVariable String uploadId) {
+        return ResponseEntity.ok(uploadSessionService.getSession(uploadId));
+    }
+
+    /**
+     * Appends the request body as the chunk starting at offset, which must be
+     * the last acknowledged offset (409 otherwise). The X-Chunk-CRC32C header
+     * carries the CRC32C of the chunk in hex; a chunk that does not match is
+     * discarded with 400.
+     * Only accessible for administrators.
+     */
+    @PutMapping(value = "/cards/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UploadSessionDto> uploadChunk(@PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-CRC32C", required = false) String crc32c,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(uploadSessionService.appendChunk(uploadId, offset, request.getInputStream(), crc32c));
+    }
+
+    /**
+     * Finishes a chunked upload and queues the assembled file for import, like
+     * POST /admin/cards/import.
+     * Only accessible for administrators.
+     */
+    @PostMapping(value = "/cards/uploads/{uploadId}/complete", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Object>> completeUpload(@PathVariable String uploadId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ImportJobDto job = uploadSessionService.complete(uploadId);
+            response.put("success", true);
+            response.put("message", "Import job queued");
+            response.put("jobId", job.getJobId());
+            response.put("job", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (RejectedExecutionException e) {
+            log.warn("Import rejected, queue is full: upload {}", uploadId);
+            response.put("success", false);
+            response.put("message", "Too many imports in progress, try again later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+    }
+
+    /**
+     * Cancels a chunked upload and deletes what was received.
+     * Only accessible for administrators.
+     */
+    @DeleteMapping("/cards/uploads/{uploadId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) {
+        uploadSessionService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Returns the size, hit rate, evictions and invalidations of each catalog cache
+     * and of the Hibernate second-level cache regions.
+     * Only accessible for administrators.
+     */
+    @GetMapping(value = "/cache/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        List<CacheStatsDto> stats = new ArrayList<>(catalogCacheInvalidator.stats());
+        stats.add(catalogJsonCache.stats());
+        stats.addAll(hibernateCacheStatistics.stats());
+        return ResponseEntity.ok(stats);
+    }
+}
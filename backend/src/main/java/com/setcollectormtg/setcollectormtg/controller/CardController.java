@@ -1,17 +1,35 @@
 package com.setcollectormtg.setcollectormtg.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.setcollectormtg.setcollectormtg.cache.CatalogHttpCache;
+import com.setcollectormtg.setcollectormtg.cache.CatalogSnapshot;
+import com.setcollectormtg.setcollectormtg.cache.CatalogSnapshotService;
 import com.setcollectormtg.setcollectormtg.dto.CardCreateDto;
 import com.setcollectormtg.setcollectormtg.dto.CardDto;
+import com.setcollectormtg.setcollectormtg.dto.CardPageDto;
+import com.setcollectormtg.setcollectormtg.dto.CardSearchResultDto;
+import com.setcollectormtg.setcollectormtg.dto.CardSuggestionDto;
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.enums.ColorMatch;
 import com.setcollectormtg.setcollectormtg.service.CardService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/cards")
@@ -19,7 +37,12 @@ import java.util.List;
 @Slf4j
 public class CardController {
 
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
     private final CardService cardService;
+    private final ObjectMapper objectMapper;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogHttpCache catalogHttpCache;
 
     /**
      * Gets all cards or filters them by parameters if present.
@@ -28,6 +51,8 @@ public class CardController {
      * @param name        Card name or part of the name (optional)
      * @param type        Card type (optional)
      * @param color       Card color (W, U, B, R, G or colorless) (optional)
+     * @param colorMatch  How colors are compared: includes, exact or at_most
+     *                    (optional, includes by default)
      * @param setCode     Set code (optional)
      * @param rarity      Card rarity (optional)
      * @param manaCostMin Minimum mana cost (optional)
@@ -39,6 +64,7 @@ public class CardController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String color,
+            @RequestParam(required = false) String colorMatch,
             @RequestParam(required = false) String setCode,
             @RequestParam(required = false) String rarity,
             @RequestParam(required = false) Integer manaCostMin,
@@ -52,11 +78,14 @@ public class CardController {
         // If any filter is applied, use filtered search
         if (name != null || type != null || color != null || setCode != null || rarity != null || manaCostMin != null
                 || manaCostMax != null) {
-            cards = cardService.getCardsByFilters(name, type, color, setCode, rarity, manaCostMin, manaCostMax);
+            cards = cardService.getCardsByFilters(name, type, null, color, parseColorMatch(colorMatch), setCode,
+                    rarity, manaCostMin, manaCostMax);
             log.debug("Found {} cards with filters", cards.size());
         } else {
-            // If no filters, return all cards
-            cards = cardService.getAllCards();
+            // If no filters, return all cards, from the catalog snapshot when it is up to date
+            cards = catalogSnapshotService.current()
+                    .map(CatalogSnapshot::cards)
+                    .orElseGet(cardService::getAllCards);
             log.debug("Retrieved all {} cards", cards.size());
         }
 
@@ -64,15 +93,74 @@ public class CardController {
     }
 
     /**
-     * Gets a card by its ID. This endpoint is public - no authentication required.
+     * Exports the whole card catalog as newline-delimited JSON, one card per
+     * line. Cards are written as they are read from the catalog snapshot or,
+     * while it is being rebuilt, from the database, so memory use does not grow
+     * with the catalog size. This endpoint is public - no authentication
+     * required.
+     *
+     * @param response HTTP response the cards are streamed to
+     * @throws IOException if the client connection fails
+     */
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    public void exportCards(HttpServletResponse response) throws IOException {
+        log.debug("Exporting card catalog");
+        response.setContentType(NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            Consumer<CardDto> sink = card -> {
+                try {
+                    writer.write(card);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            Optional<CatalogSnapshot> snapshot = catalogSnapshotService.current();
+            if (snapshot.isPresent()) {
+                snapshot.get().forEachCard(sink);
+            } else {
+                cardService.exportCards(sink);
+            }
+        }
+    }
+
+    /**
+     * Suggests card names for autocompletion. Returns only the card ID, name and
+     * set code, one printing per name (the most recent one). This endpoint is
+     * public - no authentication required.
+     *
+     * @param prefix Beginning of the card name
+     * @param limit  Maximum number of suggestions, capped at 20
+     * @return Suggestions ordered by relevance
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CardSuggestionDto>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Autocompleting card names: prefix={}, limit={}", prefix, limit);
+        return ResponseEntity.ok(cardService.suggestCards(prefix, limit));
+    }
+
+    /**
+     * Gets a card by its ID, from the catalog snapshot when it is up to date.
+     * The response carries an ETag with the catalog version; a request whose
+     * If-None-Match matches it gets 304 Not Modified without a body. This
+     * endpoint is public - no authentication required.
      *
-     * @param id Card ID
+     * @param id      Card ID
+     * @param request Current request, for the conditional headers
      * @return Found card
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CardDto> getCardById(@PathVariable Long id) {
+    public ResponseEntity<CardDto> getCardById(@PathVariable Long id, WebRequest request) {
         log.debug("Getting card by ID: {}", id);
-        return ResponseEntity.ok(cardService.getCardById(id));
+        return catalogHttpCache.conditional(request, () -> catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.card(id))
+                .orElseGet(() -> cardService.getCardById(id)));
     }
 
     /**
@@ -81,33 +169,142 @@ public class CardController {
      * 
      * @param name        Card name or part of the name (optional)
      * @param cardType    Card type (optional)
+     * @param oracleText  Words of the rules text, all required; quote them to
+     *                    match an exact phrase. Results are ranked by relevance
+     *                    (optional)
      * @param color       Card color (W, U, B, R, G or colorless) (optional)
+     * @param colorMatch  How colors are compared: includes, exact or at_most
+     *                    (optional, includes by default)
      * @param setCode     Set code (optional)
      * @param rarity      Card rarity (optional)
      * @param manaCostMin Minimum mana cost (optional)
      * @param manaCostMax Maximum mana cost (optional)
-     * @return List of cards that meet the criteria
+     * @param facets      When true, the response also carries counts per rarity,
+     *                    color, set and mana value of the matching cards
+     * @return List of cards that meet the criteria, or the cards and their facet
+     *         counts when facets is true
      */
     @GetMapping("/search")
-    public ResponseEntity<List<CardDto>> searchCards(
+    public ResponseEntity<?> searchCards(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String cardType,
+            @RequestParam(required = false) String oracleText,
             @RequestParam(required = false) String color,
+            @RequestParam(required = false) String colorMatch,
             @RequestParam(required = false) String setCode,
             @RequestParam(required = false) String rarity,
             @RequestParam(required = false) Integer manaCostMin,
-            @RequestParam(required = false) Integer manaCostMax) {
+            @RequestParam(required = false) Integer manaCostMax,
+            @RequestParam(defaultValue = "false") boolean facets) {
+
+        log.debug("Searching cards with filters: name={}, cardType={}, oracleText={}, color={}, setCode={}, rarity={}, manaCost={}-{}",
+                name, cardType, oracleText, color, setCode, rarity, manaCostMin, manaCostMax);
 
-        log.debug("Searching cards with filters: name={}, cardType={}, color={}, setCode={}, rarity={}, manaCost={}-{}",
-                name, cardType, color, setCode, rarity, manaCostMin, manaCostMax);
+        if (facets) {
+            CardSearchResultDto result = cardService.searchCardsWithFacets(name, cardType, oracleText, color,
+                    parseColorMatch(colorMatch), setCode, rarity, manaCostMin, manaCostMax);
+            log.debug("Faceted search returned {} cards", result.getCards().size());
+            return ResponseEntity.ok(result);
+        }
 
-        List<CardDto> results = cardService.getCardsByFilters(name, cardType, color, setCode, rarity, manaCostMin,
-                manaCostMax);
+        List<CardDto> results = cardService.getCardsByFilters(name, cardType, oracleText, color,
+                parseColorMatch(colorMatch), setCode, rarity, manaCostMin, manaCostMax);
         log.debug("Search returned {} cards", results.size());
 
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * Searches cards by an approximate name, tolerating typos such as "Lightening
+     * Bolt". Returns one printing per name, closest matches first. This endpoint
+     * is public - no authentication required.
+     *
+     * @param name        Approximate card name
+     * @param maxDistance Maximum edit distance, up to 2
+     * @param limit       Maximum number of cards, up to 50
+     * @return Cards ordered by similarity
+     */
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<CardDto>> searchCardsFuzzy(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "2") int maxDistance,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Fuzzy card search: name={}, maxDistance={}, limit={}", name, maxDistance, limit);
+        List<CardDto> results = cardService.searchCardsFuzzy(name, maxDistance, limit);
+        log.debug("Fuzzy search returned {} cards", results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Searches cards with a query string such as
+     * {@code t:creature (c:r or c:g) mv<=3 -o:flying}. Terms are ANDed, "or" and
+     * parentheses group alternatives and "-" negates a term. Supported fields:
+     * name (n), type (t), oracle (o), color (c), mv (cmc), rarity (r) and set
+     * (s, e), with the operators :, =, &lt;, &lt;=, &gt; and &gt;=. A term without a
+     * field matches the card name. This endpoint is public - no authentication
+     * required.
+     *
+     * @param query Query string
+     * @return Cards matching the query
+     */
+    @GetMapping("/query")
+    public ResponseEntity<List<CardDto>> searchCardsByQuery(@RequestParam("q") String query) {
+        log.debug("Card query search: q={}", query);
+        List<CardDto> results = cardService.searchCardsByQuery(query);
+        log.debug("Query search returned {} cards", results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Searches cards one page at a time using keyset pagination. The response
+     * includes an opaque cursor that must be sent back to get the next page, so
+     * deep pages cost the same as the first one. This endpoint is public - no
+     * authentication required.
+     *
+     * @param name        Card name or part of the name (optional)
+     * @param cardType    Card type (optional)
+     * @param oracleText  Words of the rules text, all required; quote them to
+     *                    match an exact phrase (optional)
+     * @param color       Card color (W, U, B, R, G or colorless) (optional)
+     * @param colorMatch  How colors are compared: includes, exact or at_most
+     *                    (optional, includes by default)
+     * @param setCode     Set code (optional)
+     * @param rarity      Card rarity (optional)
+     * @param manaCostMin Minimum mana cost (optional)
+     * @param manaCostMax Maximum mana cost (optional)
+     * @param sort        Sort field: name, manaValue, rarity or releaseDate
+     * @param direction   Sort direction: asc or desc
+     * @param cursor      Cursor returned with the previous page (optional)
+     * @param size        Page size, capped at 200
+     * @return Page of cards and the cursor of the next page
+     */
+    @GetMapping("/search/page")
+    public ResponseEntity<CardPageDto> searchCardsPage(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cardType,
+            @RequestParam(required = false) String oracleText,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String colorMatch,
+            @RequestParam(required = false) String setCode,
+            @RequestParam(required = false) String rarity,
+            @RequestParam(required = false) Integer manaCostMin,
+            @RequestParam(required = false) Integer manaCostMax,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.debug("Searching card page: name={}, cardType={}, oracleText={}, color={}, setCode={}, rarity={}, manaCost={}-{}, sort={} {}",
+                name, cardType, oracleText, color, setCode, rarity, manaCostMin, manaCostMax, sort, direction);
+
+        CardPageDto page = cardService.searchCardsPage(name, cardType, oracleText, color, parseColorMatch(colorMatch),
+                setCode, rarity, manaCostMin, manaCostMax, CardSortField.fromString(sort),
+                "desc".equalsIgnoreCase(direction), cursor, size);
+        log.debug("Page returned {} cards, hasNext={}", page.getCards().size(), page.isHasNext());
+
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Creates a new card. Requires ADMIN authority.
      *
@@ -156,4 +353,8 @@ public class CardController {
         log.info("Card with ID {} deleted successfully", id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private static ColorMatch parseColorMatch(String colorMatch) {
+        return colorMatch != null ? ColorMatch.fromString(colorMatch) : ColorMatch.INCLUDES;
+    }
+}
@@ -1,16 +1,24 @@
 package com.setcollectormtg.setcollectormtg.controller;
 
+import com.setcollectormtg.setcollectormtg.cache.CatalogHttpCache;
+import com.setcollectormtg.setcollectormtg.cache.CatalogJsonCache;
+import com.setcollectormtg.setcollectormtg.cache.CatalogSnapshot;
+import com.setcollectormtg.setcollectormtg.cache.CatalogSnapshotService;
 import com.setcollectormtg.setcollectormtg.dto.CardDto;
 import com.setcollectormtg.setcollectormtg.dto.SetMtgCreateDto;
 import com.setcollectormtg.setcollectormtg.dto.SetMtgDto;
 import com.setcollectormtg.setcollectormtg.service.SetMtgService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,32 +28,47 @@ import java.util.List;
 public class SetMtgController {
 
     private final SetMtgService setMtgService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogHttpCache catalogHttpCache;
+    private final CatalogJsonCache catalogJsonCache;
 
     /**
      * Gets all MTG sets. This endpoint is public.
+     * Read endpoints answer from the catalog snapshot when it is up to date and
+     * fall back to the service otherwise. They carry an ETag with the catalog
+     * version and answer 304 Not Modified when If-None-Match matches it.
+     * The set list is serialized once per catalog version and the cached JSON
+     * bytes, gzipped when the client accepts it, are written straight to the
+     * response.
      */
     @GetMapping
-    public ResponseEntity<List<SetMtgDto>> getAllSets() {
+    public void getAllSets(HttpServletRequest request, HttpServletResponse response) throws IOException {
         log.debug("Getting all MTG sets");
-        return ResponseEntity.ok(setMtgService.getAllSets());
+        catalogJsonCache.write("sets", () -> catalogSnapshotService.current()
+                .map(CatalogSnapshot::sets)
+                .orElseGet(setMtgService::getAllSets), request, response);
     }
 
     /**
      * Gets an MTG set by ID. This endpoint is public.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SetMtgDto> getSetById(@PathVariable Long id) {
+    public ResponseEntity<SetMtgDto> getSetById(@PathVariable Long id, WebRequest request) {
         log.debug("Getting MTG set with ID: {}", id);
-        return ResponseEntity.ok(setMtgService.getSetById(id));
+        return catalogHttpCache.conditional(request, () -> catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.set(id))
+                .orElseGet(() -> setMtgService.getSetById(id)));
     }
 
     /**
      * Gets an MTG set by set code. This endpoint is public.
      */
     @GetMapping("/code/{setCode}")
-    public ResponseEntity<SetMtgDto> getSetByCode(@PathVariable String setCode) {
+    public ResponseEntity<SetMtgDto> getSetByCode(@PathVariable String setCode, WebRequest request) {
         log.debug("Getting MTG set with code: {}", setCode);
-        return ResponseEntity.ok(setMtgService.getSetByCode(setCode));
+        return catalogHttpCache.conditional(request, () -> catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.setByCode(setCode))
+                .orElseGet(() -> setMtgService.getSetByCode(setCode)));
     }
 
     /**
@@ -91,10 +114,14 @@ public class SetMtgController {
 
     /**
      * Gets all cards in an MTG set. This endpoint is public.
+     * Like the set list, it is served from JSON bytes cached per catalog version.
      */
     @GetMapping("/{id}/cards")
-    public ResponseEntity<List<CardDto>> getCardsBySet(@PathVariable Long id) {
+    public void getCardsBySet(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
         log.debug("Getting cards for MTG set with ID: {}", id);
-        return ResponseEntity.ok(setMtgService.getCardsBySet(id));
+        catalogJsonCache.write("sets/" + id + "/cards", () -> catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.cardsOfSet(id))
+                .orElseGet(() -> setMtgService.getCardsBySet(id)), request, response);
     }
 }
\ No newline at end of file
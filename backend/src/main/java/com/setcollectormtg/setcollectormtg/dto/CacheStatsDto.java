@@ -0,0 +1,22 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+    private String name;
+    private long size;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    // Entradas desalojadas por tamaño; las invalidaciones no cuentan
+    private long evictions;
+    // Entradas borradas por eventos de cambio del catálogo
+    private long invalidations;
+}
@@ -0,0 +1,22 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardFacetsDto {
+    private Map<String, Long> rarity;
+
+    // Cartas que incluyen cada color (W, U, B, R, G) y cartas incoloras (C)
+    private Map<String, Long> color;
+
+    private Map<String, Long> set;
+
+    // Valor de maná agrupado de 0 a 6 y "7+"
+    private Map<String, Long> manaValue;
+}
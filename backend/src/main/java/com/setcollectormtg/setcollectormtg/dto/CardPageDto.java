@@ -0,0 +1,19 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardPageDto {
+    private List<CardDto> cards;
+
+    // Cursor opaco para pedir la página siguiente; null si no hay más resultados
+    private String nextCursor;
+
+    private boolean hasNext;
+}
@@ -0,0 +1,15 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardSearchResultDto {
+    private List<CardDto> cards;
+    private CardFacetsDto facets;
+}
@@ -0,0 +1,14 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardSuggestionDto {
+    private Long cardId;
+    private String name;
+    private String setCode;
+}
@@ -0,0 +1,40 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import com.setcollectormtg.setcollectormtg.enums.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobDto {
+    private String jobId;
+    private String fileName;
+    private ImportJobStatus status;
+
+    // Cartas del archivo (null hasta terminar la primera lectura, y siempre en los volcados), leídas, escritas y rechazadas
+    private Integer cardsTotal;
+    private int cardsParsed;
+    private int cardsWritten;
+    private int cardsRejected;
+
+    // Tamaño del archivo y bytes leídos, en los volcados cuyo avance se mide en bytes
+    private Long bytesTotal;
+    private long bytesRead;
+
+    // Cartas leídas por segundo y segundos estimados hasta terminar
+    private long cardsPerSecond;
+    private Long etaSeconds;
+
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private ImportResultDto result;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRejectionDto {
+    // JSON Pointer de la carta en el archivo, por ejemplo /data/cards/42
+    private String pointer;
+    private String name;
+    private String reason;
+}
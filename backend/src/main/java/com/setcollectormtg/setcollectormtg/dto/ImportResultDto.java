@@ -0,0 +1,29 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDto {
+    // Código del set, o null en una importación de varios sets
+    private String setCode;
+    private int sets;
+
+    // Cartas nuevas, cartas existentes cuyo contenido cambió y cartas sin cambios
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    // Cartas aceptadas (nuevas, actualizadas o sin cambios) y rechazadas
+    private int accepted;
+    private int rejected;
+
+    // Cartas rechazadas con su motivo; solo las primeras si hay muchas
+    private List<ImportRejectionDto> rejections = new ArrayList<>();
+}
@@ -0,0 +1,26 @@
+package com.setcollectormtg.setcollectormtg.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+    private String uploadId;
+    private String fileName;
+    private boolean bulk;
+
+    // Bytes confirmados, desde donde debe continuar el siguiente bloque
+    private long offset;
+    // Tamaño total anunciado al iniciar la subida, si se conoce
+    private Long totalSize;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.setcollectormtg.setcollectormtg.enums;
+
+import java.util.Locale;
+
+/**
+ * Enum que representa los campos por los que se puede ordenar una búsqueda
+ * paginada de cartas. El ID de la carta se usa siempre como desempate.
+ */
+public enum CardSortField {
+    /**
+     * Nombre de la carta, sin distinguir mayúsculas.
+     */
+    NAME,
+
+    /**
+     * Valor de maná (CMC). Las cartas sin valor van al final.
+     */
+    MANA_VALUE,
+
+    /**
+     * Rareza, de common a mythic. Las rarezas desconocidas van al final.
+     */
+    RARITY,
+
+    /**
+     * Fecha de lanzamiento del set. Las cartas sin set o sin fecha van al final.
+     */
+    RELEASE_DATE;
+
+    /**
+     * Convierte una cadena de texto en el campo de ordenación correspondiente.
+     * Acepta tanto "manaValue" como "mana_value".
+     *
+     * @param sortField el nombre del campo
+     * @return el enum CardSortField correspondiente
+     * @throws IllegalArgumentException si el campo no es válido
+     */
+    public static CardSortField fromString(String sortField) {
+        String normalized = sortField.trim()
+                .replaceAll("([a-z])([A-Z])", "$1_$2")
+                .replace('-', '_')
+                .toUpperCase(Locale.ROOT);
+        try {
+            return CardSortField.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort field: " + sortField);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.setcollectormtg.setcollectormtg.enums;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Enum que representa cómo se comparan los colores de una carta con los colores
+ * buscados en un filtro.
+ */
+public enum ColorMatch {
+    /**
+     * La carta tiene al menos todos los colores buscados (C: solo incoloras).
+     */
+    INCLUDES,
+
+    /**
+     * La carta tiene exactamente los colores buscados.
+     */
+    EXACT,
+
+    /**
+     * La carta no tiene ningún color fuera de los buscados.
+     */
+    AT_MOST;
+
+    /**
+     * Indica si una máscara de colores cumple la condición respecto a la buscada.
+     *
+     * @param cardMask  Máscara de colores de la carta
+     * @param queryMask Máscara de colores buscada
+     * @return true si la carta cumple el modo de comparación
+     */
+    public boolean matches(int cardMask, int queryMask) {
+        return switch (this) {
+            case INCLUDES -> queryMask == 0 ? cardMask == 0 : (cardMask & queryMask) == queryMask;
+            case EXACT -> cardMask == queryMask;
+            case AT_MOST -> (cardMask & ~queryMask) == 0;
+        };
+    }
+
+    /**
+     * Devuelve todas las máscaras de 5 bits que cumplen la condición, para
+     * resolver el filtro con una sola consulta IN o una unión de bitmaps.
+     *
+     * @param queryMask Máscara de colores buscada
+     * @return Máscaras de carta aceptadas
+     */
+    public List<Integer> matchingMasks(int queryMask) {
+        List<Integer> masks = new ArrayList<>();
+        for (int mask = 0; mask < 32; mask++) {
+            if (matches(mask, queryMask)) {
+                masks.add(mask);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Convierte una cadena de texto en el modo de comparación correspondiente.
+     *
+     * @param colorMatch el nombre del modo (includes, exact, at_most)
+     * @return el enum ColorMatch correspondiente
+     * @throws IllegalArgumentException si el modo no es válido
+     */
+    public static ColorMatch fromString(String colorMatch) {
+        try {
+            return ColorMatch.valueOf(colorMatch.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid color match: " + colorMatch);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.setcollectormtg.setcollectormtg.enums;
+
+import org.tukaani.xz.XZInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Formatos de archivo admitidos en la importación de cartas, identificados por
+ * la extensión del nombre.
+ *
+ * Los formatos comprimidos se descomprimen en streaming al abrirlos: el JSON
+ * nunca se escribe descomprimido en disco ni se carga entero en memoria.
+ */
+public enum ImportFileFormat {
+    JSON(".json"),
+    GZIP(".json.gz"),
+    XZ(".json.xz"),
+    /**
+     * Se importa la primera entrada .json del archivo.
+     */
+    ZIP(".zip");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    ImportFileFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Abre el archivo como un flujo con el JSON ya descomprimido.
+     *
+     * @param file Archivo en este formato
+     * @return Flujo del JSON; cerrarlo cierra también el archivo
+     * @throws IOException Si el archivo no se puede leer o no contiene JSON
+     */
+    public InputStream open(Path file) throws IOException {
+        return open(Files.newInputStream(file));
+    }
+
+    /**
+     * Igual que open(Path), sobre un flujo ya abierto con el contenido del
+     * archivo tal cual, por ejemplo para contar los bytes que se leen.
+     *
+     * @param input Contenido del archivo en este formato
+     * @return Flujo del JSON; cerrarlo cierra también input
+     * @throws IOException Si el contenido no se puede leer o no contiene JSON
+     */
+    public InputStream open(InputStream input) throws IOException {
+        try {
+            return switch (this) {
+                // El parser ya lee por bloques; un buffer más solo añadiría una copia
+                case JSON -> input;
+                case GZIP -> new GZIPInputStream(input, BUFFER_SIZE);
+                case XZ -> new XZInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+                case ZIP -> openFirstJsonEntry(new ZipInputStream(new BufferedInputStream(input, BUFFER_SIZE)));
+            };
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el formato a partir del nombre del archivo.
+     *
+     * @param fileName Nombre del archivo, por ejemplo "dmu.json.gz"
+     * @return Formato correspondiente
+     * @throws IllegalArgumentException si la extensión no es de un formato admitido
+     */
+    public static ImportFileFormat fromFileName(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        for (ImportFileFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import file: " + fileName);
+    }
+
+    /**
+     * Deja el flujo situado al principio de la primera entrada .json.
+     */
+    private static InputStream openFirstJsonEntry(ZipInputStream zip) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                return zip;
+            }
+        }
+        zip.close();
+        throw new IOException("El archivo zip no contiene ningún JSON");
+    }
+}
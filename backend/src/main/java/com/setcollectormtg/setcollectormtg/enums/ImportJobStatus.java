@@ -0,0 +1,27 @@
+package com.setcollectormtg.setcollectormtg.enums;
+
+/**
+ * Estado de un trabajo de importación de cartas.
+ */
+public enum ImportJobStatus {
+    /**
+     * En cola, esperando un hilo libre del pool de importación.
+     */
+    QUEUED,
+
+    /**
+     * Leyendo y guardando cartas.
+     */
+    RUNNING,
+
+    /**
+     * Terminado; todas las cartas del archivo se han procesado.
+     */
+    COMPLETED,
+
+    /**
+     * Interrumpido por un error. Los bloques ya confirmados se conservan y se
+     * pueden completar reimportando el archivo.
+     */
+    FAILED
+}
@@ -0,0 +1,27 @@
+package com.setcollectormtg.setcollectormtg.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción que indica que un bloque de una subida por partes no empieza en el
+ * último desplazamiento confirmado. El cliente debe reanudar desde
+ * expectedOffset.
+ */
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    private final long expectedOffset;
+
+    /**
+     * Crea una nueva excepción indicando el desplazamiento esperado.
+     * @param message Mensaje descriptivo del conflicto
+     * @param expectedOffset Bytes ya confirmados de la subida
+     */
+    public UploadOffsetMismatchException(String message, long expectedOffset) {
+        super(message);
+        this.expectedOffset = expectedOffset;
+    }
+}
@@ -2,6 +2,7 @@ package com.setcollectormtg.setcollectormtg.handler;
 
 import com.setcollectormtg.setcollectormtg.dto.ErrorResponse;
 import com.setcollectormtg.setcollectormtg.exception.ResourceNotFoundException;
+import com.setcollectormtg.setcollectormtg.exception.UploadOffsetMismatchException;
 import com.setcollectormtg.setcollectormtg.exception.UserAlreadyExistsException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -234,6 +235,29 @@ public class GlobalExceptionHandler {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
 
+        /**
+         * Maneja los bloques de subida que no empiezan en el desplazamiento
+         * confirmado, indicando en errors.offset desde dónde reanudar
+         */
+        @ExceptionHandler(UploadOffsetMismatchException.class)
+        public ResponseEntity<ErrorResponse> handleUploadOffsetMismatchException(
+                        UploadOffsetMismatchException ex,
+                        WebRequest request) {
+
+                log.warn("Upload offset mismatch: {}", ex.getMessage());
+
+                ErrorResponse error = ErrorResponse.builder()
+                                .code("UPLOAD_OFFSET_MISMATCH")
+                                .message(ex.getMessage())
+                                .errors(Map.of("offset", String.valueOf(ex.getExpectedOffset())))
+                                .timestamp(LocalDateTime.now())
+                                .path(request.getDescription(false).replace("uri=", ""))
+                                .status(HttpStatus.CONFLICT.value())
+                                .build();
+
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+
         /**
          * Maneja excepciones de estado ilegal (reglas de negocio)
          */
@@ -17,6 +17,10 @@ public interface CardMapper {
     @Mapping(target = "setMtg", ignore = true)
     @Mapping(target = "cardId", ignore = true)
     @Mapping(target = "scryfallId", ignore = true)
+    @Mapping(target = "face", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "colorMask", ignore = true)
+    @Mapping(target = "sortName", ignore = true)
     @Mapping(target = "userCollectionCards", ignore = true)
     @Mapping(target = "manaValueFromNode", ignore = true)
     @Mapping(target = "manaValue", expression = "java(cardCreateDto.getManaValue() != null ? cardCreateDto.getManaValue().doubleValue() : null)")
@@ -32,6 +36,10 @@ public interface CardMapper {
     @Mapping(target = "setMtg", ignore = true)
     @Mapping(target = "cardId", ignore = true)
     @Mapping(target = "scryfallId", ignore = true)
+    @Mapping(target = "face", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "colorMask", ignore = true)
+    @Mapping(target = "sortName", ignore = true)
     @Mapping(target = "userCollectionCards", ignore = true)
     @Mapping(target = "manaValueFromNode", ignore = true)
     @Mapping(target = "manaValue", expression = "java(cardDto.getManaValue() != null ? cardDto.getManaValue().doubleValue() : null)")
@@ -2,8 +2,13 @@ package com.setcollectormtg.setcollectormtg.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.setcollectormtg.setcollectormtg.cache.HibernateCacheConfig;
+import com.setcollectormtg.setcollectormtg.util.CardNameNormalizer;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +20,11 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "card")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = HibernateCacheConfig.CARD_REGION)
+@Table(name = "card", indexes = {
+        @Index(name = "idx_card_color_mask", columnList = "color_mask"),
+        @Index(name = "idx_card_sort_name", columnList = "sort_name, card_id") })
 public class Card {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +34,10 @@ public class Card {
     @Column(nullable = false)
     private String name;
 
+    // Clave de ordenación por nombre, calculada con CardNameNormalizer
+    @Column(name = "sort_name", length = CardNameNormalizer.MAX_LENGTH)
+    private String sortName;
+
     @Column(nullable = false)
     private String rarity;
 
@@ -37,6 +50,10 @@ public class Card {
     @Column(name = "mana_cost")
     private String manaCost;
 
+    // Colores del coste de maná como máscara de 5 bits (W=1, U=2, B=4, R=8, G=16)
+    @Column(name = "color_mask")
+    private Integer colorMask;
+
     @Column(name = "card_type", nullable = false)
     private String cardType;
 
@@ -46,6 +63,15 @@ public class Card {
     @Column(name = "scryfall_id")
     private String scryfallId;
 
+    // Cara de una carta de varias caras (side de MTGJSON: "a", "b"...); todas
+    // las caras comparten scryfallId. Null en las cartas de una sola cara
+    @Column(name = "face", length = 32)
+    private String face;
+
+    // Huella del contenido importado; permite saber si una carta cambió al reimportar su set
+    @Column(name = "content_hash")
+    private Long contentHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "set_id", nullable = true)
     private SetMtg setMtg;
@@ -61,6 +87,18 @@ public class Card {
         }
     }
 
+    // Mantiene la clave de ordenación sincronizada con el nombre
+    public void setName(String name) {
+        this.name = name;
+        this.sortName = CardNameNormalizer.sortKey(name);
+    }
+
+    // Mantiene la máscara de colores sincronizada con el coste de maná
+    public void setManaCost(String manaCost) {
+        this.manaCost = manaCost;
+        this.colorMask = ManaCostParser.colorMask(manaCost);
+    }
+
     // Método para facilitar la búsqueda por rango de coste de maná
     @Transient
     public Integer getConvertedManaCost() {
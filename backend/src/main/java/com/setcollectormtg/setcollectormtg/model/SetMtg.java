@@ -1,7 +1,10 @@
 package com.setcollectormtg.setcollectormtg.model;
 
+import com.setcollectormtg.setcollectormtg.cache.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -14,6 +17,8 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = HibernateCacheConfig.SET_REGION)
 @Table(name = "set_mtg")
 public class SetMtg {
     @Id
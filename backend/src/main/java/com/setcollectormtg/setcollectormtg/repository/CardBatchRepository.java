@@ -0,0 +1,212 @@
+package com.setcollectormtg.setcollectormtg.repository;
+
+import com.setcollectormtg.setcollectormtg.model.Card;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritura masiva de cartas con JDBC para las importaciones.
+ *
+ * Card usa GenerationType.IDENTITY, con lo que Hibernate no puede agrupar los
+ * INSERT y saveAll hace una ida y vuelta a la base de datos por carta. Aquí
+ * las filas se envían con JdbcTemplate.batchUpdate en un solo lote; con
+ * rewriteBatchedStatements el driver de MySQL lo reescribe como INSERT de
+ * varias filas. Usa la conexión de la transacción en curso.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO card (name, rarity, oracle_text, mana_value, mana_cost,"
+            + " color_mask, card_type, image_url, scryfall_id, set_id, content_hash, sort_name, face)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE card SET name = ?, rarity = ?, oracle_text = ?, mana_value = ?,"
+            + " mana_cost = ?, color_mask = ?, card_type = ?, image_url = ?, scryfall_id = ?, set_id = ?,"
+            + " content_hash = ?, sort_name = ?, face = ? WHERE card_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta las cartas en un único lote y asigna a cada una el ID generado.
+     * Las cartas no pasan por el contexto de persistencia.
+     *
+     * @param cards Cartas nuevas con su set ya guardado
+     * @return Número de cartas insertadas
+     */
+    public int insertAll(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] { "card_id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, cards.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return cards.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != cards.size()) {
+            throw new IllegalStateException("Expected " + cards.size() + " generated card IDs but got "
+                    + generated.size());
+        }
+        for (int i = 0; i < cards.size(); i++) {
+            // El nombre de la columna de la clave depende del driver
+            cards.get(i).setCardId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+        return cards.size();
+    }
+
+    /**
+     * Actualiza en un único lote las cartas ya existentes, identificadas por su
+     * ID.
+     *
+     * @param cards Cartas con su ID y los nuevos valores
+     * @return Número de cartas actualizadas
+     */
+    public int updateAll(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Card card = cards.get(i);
+                bind(ps, card);
+                ps.setLong(14, card.getCardId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return cards.size();
+            }
+        });
+        return cards.size();
+    }
+
+    /**
+     * Guarda en un único lote la clave de ordenación por nombre de varias
+     * cartas.
+     *
+     * @param sortNames Claves indexadas por ID de carta
+     */
+    public void updateSortNames(Map<Long, String> sortNames) {
+        if (sortNames.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = sortNames.entrySet().stream()
+                .map(entry -> new Object[] { entry.getValue(), entry.getKey() })
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE card SET sort_name = ? WHERE card_id = ?", args);
+    }
+
+    /**
+     * Carga en una sola consulta la huella de las cartas de un set que tienen
+     * scryfallId. Si varias filas comparten clave se queda la de menor ID.
+     *
+     * @param setId ID del set
+     * @return Huellas indexadas por scryfallId y cara
+     */
+    public Map<CardKey, CardFingerprint> findFingerprints(Long setId) {
+        Map<CardKey, CardFingerprint> fingerprints = new HashMap<>();
+        jdbcTemplate.query("SELECT card_id, scryfall_id, face, content_hash FROM card"
+                + " WHERE set_id = ? AND scryfall_id IS NOT NULL ORDER BY card_id", rs -> {
+                    fingerprints.putIfAbsent(new CardKey(rs.getString(2), rs.getString(3)),
+                            new CardFingerprint(rs.getLong(1), rs.getObject(4, Long.class)));
+                }, setId);
+        return fingerprints;
+    }
+
+    /**
+     * Carga en una sola consulta las cartas de un set que tienen scryfallId
+     * pero se guardaron sin cara, como las caras de cartas de varias caras
+     * importadas antes de guardarla, para poder emparejarlas por scryfallId.
+     *
+     * @param setId ID del set
+     * @return Huellas por scryfallId, en orden de ID
+     */
+    public Map<String, Deque<CardFingerprint>> findFingerprintsWithoutFace(Long setId) {
+        Map<String, Deque<CardFingerprint>> fingerprints = new HashMap<>();
+        jdbcTemplate.query("SELECT card_id, scryfall_id, content_hash FROM card"
+                + " WHERE set_id = ? AND scryfall_id IS NOT NULL AND face IS NULL ORDER BY card_id", rs -> {
+                    fingerprints.computeIfAbsent(rs.getString(2), scryfallId -> new ArrayDeque<>())
+                            .add(new CardFingerprint(rs.getLong(1), rs.getObject(3, Long.class)));
+                }, setId);
+        return fingerprints;
+    }
+
+    /**
+     * Carga en una sola consulta las cartas de un set guardadas sin scryfallId,
+     * como las de importaciones anteriores a las huellas, para poder
+     * emparejarlas por nombre.
+     *
+     * @param setId ID del set
+     * @return Huellas por nombre, en orden de ID; un nombre puede tener varias
+     *         impresiones en el mismo set
+     */
+    public Map<String, Deque<CardFingerprint>> findFingerprintsWithoutScryfallId(Long setId) {
+        Map<String, Deque<CardFingerprint>> fingerprints = new HashMap<>();
+        jdbcTemplate.query("SELECT card_id, name, content_hash FROM card"
+                + " WHERE set_id = ? AND scryfall_id IS NULL ORDER BY card_id", rs -> {
+                    fingerprints.computeIfAbsent(rs.getString(2), name -> new ArrayDeque<>())
+                            .add(new CardFingerprint(rs.getLong(1), rs.getObject(3, Long.class)));
+                }, setId);
+        return fingerprints;
+    }
+
+    private static void bind(PreparedStatement ps, Card card) throws SQLException {
+        ps.setString(1, card.getName());
+        ps.setString(2, card.getRarity());
+        ps.setString(3, card.getOracleText());
+        ps.setObject(4, card.getManaValue(), Types.DOUBLE);
+        ps.setString(5, card.getManaCost());
+        ps.setObject(6, card.getColorMask(), Types.INTEGER);
+        ps.setString(7, card.getCardType());
+        ps.setString(8, card.getImageUrl());
+        ps.setString(9, card.getScryfallId());
+        ps.setObject(10, card.getSetMtg() != null ? card.getSetMtg().getSetId() : null, Types.BIGINT);
+        ps.setObject(11, card.getContentHash(), Types.BIGINT);
+        ps.setString(12, card.getSortName());
+        ps.setString(13, card.getFace());
+    }
+
+    /**
+     * ID y huella del contenido de una carta guardada; contentHash es null en
+     * las cartas importadas antes de guardar huellas.
+     */
+    public record CardFingerprint(Long cardId, Long contentHash) {
+    }
+
+    /**
+     * Clave de una carta importada dentro de su set: las caras de una carta de
+     * varias caras comparten scryfallId y se distinguen por face, que es null
+     * en las de una sola cara.
+     */
+    public record CardKey(String scryfallId, String face) {
+
+        public static CardKey of(Card card) {
+            return new CardKey(card.getScryfallId(), card.getFace());
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.setcollectormtg.setcollectormtg.repository;
 
 import com.setcollectormtg.setcollectormtg.model.Card;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, CardRepositoryCustom {
 
        // Buscar cartas por nombre (parcial, ignorando mayúsculas/minúsculas)
        List<Card> findByNameContainingIgnoreCase(String name);
@@ -17,44 +21,52 @@ public interface CardRepository extends JpaRepository<Card, Long> {
        // Buscar cartas por tipo (parcial, ignorando mayúsculas/minúsculas)
        List<Card> findByCardTypeContainingIgnoreCase(String cardType);
 
-       // Buscar cartas por color en manaCost (usando LIKE para encontrar símbolos de
-       // color)
-       @Query("SELECT c FROM Card c WHERE c.manaCost LIKE %:colorSymbol%")
-       List<Card> findByColorSymbol(@Param("colorSymbol") String colorSymbol);
-
-       // Buscar cartas incoloras (que no contengan símbolos de colores W, U, B, R, G
-       // en su coste de maná)
-       @Query("SELECT c FROM Card c WHERE " +
-                     "(c.manaCost IS NULL OR " +
-                     "c.manaCost NOT LIKE '%W%' AND " +
-                     "c.manaCost NOT LIKE '%U%' AND " +
-                     "c.manaCost NOT LIKE '%B%' AND " +
-                     "c.manaCost NOT LIKE '%R%' AND " +
-                     "c.manaCost NOT LIKE '%G%')")
-       List<Card> findColorlessCards();
-
-       // Método combinado para buscar por múltiples criterios
-       @Query("SELECT c FROM Card c WHERE " +
+       // Buscar cartas cuya máscara de colores esté entre las indicadas (columna
+       // indexada color_mask)
+       List<Card> findByColorMaskIn(Collection<Integer> colorMasks);
+
+       // Método combinado para buscar por múltiples criterios. El color se filtra
+       // por las máscaras aceptadas salvo que anyColor sea true
+       @Query("SELECT c FROM Card c LEFT JOIN c.setMtg s WHERE " +
                      "(:name IS NULL OR LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
                      "(:cardType IS NULL OR LOWER(c.cardType) LIKE LOWER(CONCAT('%', :cardType, '%'))) AND " +
+                     "(:oracleText IS NULL OR LOWER(c.oracleText) LIKE LOWER(CONCAT('%', :oracleText, '%'))) AND " +
                      "(:rarity IS NULL OR LOWER(c.rarity) = LOWER(:rarity)) AND " +
-                     "(:setCode IS NULL OR c.setMtg.setCode = :setCode) AND " +
-                     "(:colorSymbol IS NULL OR " +
-                     "(:colorSymbol = 'C' AND (c.manaCost IS NULL OR " +
-                     "c.manaCost NOT LIKE '%W%' AND " +
-                     "c.manaCost NOT LIKE '%U%' AND " +
-                     "c.manaCost NOT LIKE '%B%' AND " +
-                     "c.manaCost NOT LIKE '%R%' AND " +
-                     "c.manaCost NOT LIKE '%G%')) OR " +
-                     "(:colorSymbol != 'C' AND c.manaCost LIKE CONCAT('%', :colorSymbol, '%'))) AND " +
+                     "(:setCode IS NULL OR s.setCode = :setCode) AND " +
+                     "(:anyColor = true OR c.colorMask IN :colorMasks) AND " +
                      "(:manaCostMin IS NULL OR c.manaValue >= :manaCostMin) AND " +
                      "(:manaCostMax IS NULL OR c.manaValue <= :manaCostMax)")
        List<Card> findByFilters(
                      @Param("name") String name,
                      @Param("cardType") String cardType,
+                     @Param("oracleText") String oracleText,
                      @Param("rarity") String rarity,
                      @Param("setCode") String setCode,
-                     @Param("colorSymbol") String colorSymbol,
+                     @Param("anyColor") boolean anyColor,
+                     @Param("colorMasks") Collection<Integer> colorMasks,
                      @Param("manaCostMin") Integer manaCostMin,
                      @Param("manaCostMax") Integer manaCostMax);
+
+       // Lote de cartas con su set ordenado por ID, para recorrer el catálogo
+       // completo por páginas sin usar OFFSET
+       @Query("SELECT c FROM Card c LEFT JOIN FETCH c.setMtg WHERE c.cardId > :afterId ORDER BY c.cardId")
+       List<Card> findBatchWithSetAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+       // Cartas cuyo nombre empieza por el prefijo, las de sets más recientes primero
+       @Query("SELECT c FROM Card c LEFT JOIN FETCH c.setMtg s WHERE LOWER(c.name) LIKE CONCAT(:prefix, '%') "
+                     + "ORDER BY s.releaseDate DESC, c.cardId DESC")
+       List<Card> findByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+       // Cartas sin máscara de colores calculada (filas anteriores a la columna)
+       @Query("SELECT c.cardId, c.manaCost FROM Card c WHERE c.colorMask IS NULL ORDER BY c.cardId")
+       List<Object[]> findIdAndManaCostWithoutColorMask(Pageable pageable);
+
+       @Modifying
+       @Transactional
+       @Query("UPDATE Card c SET c.colorMask = :colorMask WHERE c.cardId IN :cardIds")
+       int updateColorMask(@Param("colorMask") Integer colorMask, @Param("cardIds") Collection<Long> cardIds);
+
+       // Cartas sin clave de ordenación por nombre (filas anteriores a la columna)
+       @Query("SELECT c.cardId, c.name FROM Card c WHERE c.sortName IS NULL ORDER BY c.cardId")
+       List<Object[]> findIdAndNameWithoutSortName(Pageable pageable);
 }
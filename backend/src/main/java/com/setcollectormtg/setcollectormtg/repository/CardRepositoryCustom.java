@@ -0,0 +1,61 @@
+package com.setcollectormtg.setcollectormtg.repository;
+
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.search.CardCursor;
+import com.setcollectormtg.setcollectormtg.search.CardFacets;
+import com.setcollectormtg.setcollectormtg.search.CardQuery;
+import com.setcollectormtg.setcollectormtg.search.CardSearchCriteria;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Consultas de cartas que necesitan construir el JPQL dinámicamente.
+ */
+public interface CardRepositoryCustom {
+
+    /**
+     * Busca una página de cartas ordenada por (campo, ID) empezando justo después
+     * del cursor, sin OFFSET.
+     *
+     * @param criteria   Filtros de búsqueda
+     * @param sortField  Campo de ordenación
+     * @param descending true para orden descendente
+     * @param after      Cursor de la página anterior o null para la primera
+     * @param limit      Número máximo de cartas
+     * @return Cartas de la página con su set cargado
+     */
+    List<Card> findPage(CardSearchCriteria criteria, CardSortField sortField, boolean descending, CardCursor after,
+            int limit);
+
+    /**
+     * Recorre todas las cartas ordenadas por ID con un cursor de solo avance,
+     * vaciando el contexto de persistencia cada batchSize filas. En MySQL el
+     * resultado se lee en streaming, así que la acción no debe lanzar otras
+     * consultas por la misma conexión. Debe llamarse dentro de una transacción.
+     *
+     * @param batchSize Filas por lote de lectura
+     * @param action    Acción aplicada a cada carta, con su set cargado
+     */
+    void scrollAll(int batchSize, Consumer<Card> action);
+
+    /**
+     * Cuenta las cartas que cumplen los filtros agrupadas por rareza, máscara de
+     * colores, set y valor de maná en una sola consulta, y las suma al
+     * acumulador.
+     *
+     * @param criteria Filtros de búsqueda
+     * @param facets   Acumulador de facetas
+     */
+    void countFacets(CardSearchCriteria criteria, CardFacets facets);
+
+    /**
+     * Ejecuta un plan de CardQueryPlanner como una única consulta JPQL
+     * parametrizada. Se usa cuando el índice en memoria no está disponible.
+     *
+     * @param query Plan de la consulta
+     * @return Cartas encontradas ordenadas por ID, con su set cargado
+     */
+    List<Card> findByQuery(CardQuery query);
+}
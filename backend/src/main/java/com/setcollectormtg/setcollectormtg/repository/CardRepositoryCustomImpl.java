@@ -0,0 +1,248 @@
+package com.setcollectormtg.setcollectormtg.repository;
+
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.search.CardCursor;
+import com.setcollectormtg.setcollectormtg.search.CardFacets;
+import com.setcollectormtg.setcollectormtg.search.CardQuery;
+import com.setcollectormtg.setcollectormtg.search.CardSearchCriteria;
+import com.setcollectormtg.setcollectormtg.search.CardSortKeys;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class CardRepositoryCustomImpl implements CardRepositoryCustom {
+
+    // Con este tamaño de lote el driver de MySQL entrega las filas una a una en
+    // lugar de cargar todo el resultado en memoria
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Card> findPage(CardSearchCriteria criteria, CardSortField sortField, boolean descending,
+            CardCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT c FROM Card c LEFT JOIN FETCH c.setMtg s WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilters(jpql, params, criteria);
+
+        // Keyset: (clave, ID) estrictamente después del cursor en el sentido del orden
+        String sortExpression = sortExpression(sortField);
+        if (after != null) {
+            String op = descending ? "<" : ">";
+            jpql.append(" AND (").append(sortExpression).append(' ').append(op).append(" :afterKey OR (")
+                    .append(sortExpression).append(" = :afterKey AND c.cardId ").append(op).append(" :afterId))");
+            params.put("afterKey", after.getSortKey());
+            params.put("afterId", after.getCardId());
+        }
+        String direction = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ").append(sortExpression).append(direction).append(", c.cardId").append(direction);
+
+        TypedQuery<Card> query = entityManager.createQuery(jpql.toString(), Card.class);
+        params.forEach(query::setParameter);
+        if (jpql.indexOf(":nullManaValue") >= 0) {
+            query.setParameter("nullManaValue", CardSortKeys.NULL_MANA_VALUE);
+        }
+        if (jpql.indexOf(":nullReleaseDate") >= 0) {
+            query.setParameter("nullReleaseDate", CardSortKeys.NULL_RELEASE_DATE);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void scrollAll(int batchSize, Consumer<Card> action) {
+        Session session = entityManager.unwrap(Session.class);
+        boolean mysql = session.getSessionFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect() instanceof MySQLDialect;
+        try (ScrollableResults<Card> rows = session
+                .createSelectionQuery("SELECT c FROM Card c LEFT JOIN FETCH c.setMtg ORDER BY c.cardId", Card.class)
+                .setReadOnly(true)
+                .setFetchSize(mysql ? MYSQL_STREAMING_FETCH_SIZE : batchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            int count = 0;
+            while (rows.next()) {
+                action.accept(rows.get());
+                // Las entidades ya escritas no se vuelven a usar
+                if (++count % batchSize == 0) {
+                    session.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void countFacets(CardSearchCriteria criteria, CardFacets facets) {
+        StringBuilder jpql = new StringBuilder("SELECT LOWER(c.rarity), c.colorMask, s.setCode, c.manaValue, COUNT(c)"
+                + " FROM Card c LEFT JOIN c.setMtg s WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilters(jpql, params, criteria);
+        jpql.append(" GROUP BY LOWER(c.rarity), c.colorMask, s.setCode, c.manaValue");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        params.forEach(query::setParameter);
+        for (Object[] row : query.getResultList()) {
+            // Filas anteriores al backfill de color_mask cuentan como incoloras
+            int colorMask = row[1] != null ? (Integer) row[1] : ManaCostParser.COLORLESS_MASK;
+            facets.add((String) row[0], colorMask, (String) row[2], (Double) row[3], (Long) row[4]);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Card> findByQuery(CardQuery query) {
+        Map<String, Object> params = new HashMap<>();
+        String jpql = "SELECT c FROM Card c LEFT JOIN FETCH c.setMtg s WHERE " + toJpql(query, params)
+                + " ORDER BY c.cardId";
+        TypedQuery<Card> typed = entityManager.createQuery(jpql, Card.class);
+        params.forEach(typed::setParameter);
+        return typed.getResultList();
+    }
+
+    /**
+     * Traduce un nodo del plan a una condición JPQL. Cada condición es
+     * verdadera o falsa, nunca desconocida, para que la negación de una columna
+     * nula dé el mismo resultado que en el índice en memoria.
+     */
+    private static String toJpql(CardQuery query, Map<String, Object> params) {
+        if (query instanceof CardQuery.And and) {
+            return join(and.getChildren(), " AND ", params);
+        }
+        if (query instanceof CardQuery.Or or) {
+            return join(or.getChildren(), " OR ", params);
+        }
+        if (query instanceof CardQuery.Not not) {
+            return "NOT (" + toJpql(not.getChild(), params) + ")";
+        }
+        CardQuery.Predicate predicate = (CardQuery.Predicate) query;
+        String value = predicate.getValue();
+        return switch (predicate.getField()) {
+            case NAME -> textCondition("c.name", predicate, params);
+            case TYPE -> textCondition("c.cardType", predicate, params);
+            case ORACLE -> oracleCondition(predicate, params);
+            case SET -> "(s.setCode IS NOT NULL AND LOWER(s.setCode) = " + param(params, value) + ")";
+            case RARITY -> predicate.getRarities().isEmpty() ? "1 = 0"
+                    : "(c.rarity IS NOT NULL AND LOWER(c.rarity) IN " + param(params, predicate.getRarities()) + ")";
+            // Filas anteriores al backfill de color_mask cuentan como incoloras
+            case COLOR -> predicate.getColorMasks().isEmpty() ? "1 = 0"
+                    : "COALESCE(c.colorMask, " + ManaCostParser.COLORLESS_MASK + ") IN "
+                            + param(params, predicate.getColorMasks());
+            case MANA_VALUE -> {
+                String op = predicate.getComparison() == CardQuery.Comparison.MATCHES ? "="
+                        : predicate.getComparison().symbol();
+                yield "(c.manaValue IS NOT NULL AND c.manaValue " + op + " " + param(params, predicate.getNumber())
+                        + ")";
+            }
+        };
+    }
+
+    private static String join(List<CardQuery> children, String operator, Map<String, Object> params) {
+        List<String> parts = new ArrayList<>(children.size());
+        for (CardQuery child : children) {
+            parts.add(toJpql(child, params));
+        }
+        return "(" + String.join(operator, parts) + ")";
+    }
+
+    private static String textCondition(String column, CardQuery.Predicate predicate, Map<String, Object> params) {
+        if (predicate.getComparison() == CardQuery.Comparison.EQUALS) {
+            return "COALESCE(LOWER(" + column + "), '') = " + param(params, predicate.getValue());
+        }
+        return "COALESCE(LOWER(" + column + "), '') LIKE " + param(params, "%" + predicate.getValue() + "%");
+    }
+
+    /**
+     * Sin índice de palabras, cada término se busca como subcadena; una frase se
+     * busca completa con sus términos separados por un espacio.
+     */
+    private static String oracleCondition(CardQuery.Predicate predicate, Map<String, Object> params) {
+        List<String> terms = predicate.terms();
+        if (terms.isEmpty()) {
+            return "1 = 1";
+        }
+        List<String> patterns = predicate.isPhrase() ? List.of(String.join(" ", terms)) : terms;
+        List<String> parts = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            parts.add("COALESCE(LOWER(c.oracleText), '') LIKE " + param(params, "%" + pattern + "%"));
+        }
+        return "(" + String.join(" AND ", parts) + ")";
+    }
+
+    private static String param(Map<String, Object> params, Object value) {
+        String name = "p" + params.size();
+        params.put(name, value);
+        return ":" + name;
+    }
+
+    private static void appendFilters(StringBuilder jpql, Map<String, Object> params, CardSearchCriteria criteria) {
+        if (criteria.getName() != null) {
+            jpql.append(" AND LOWER(c.name) LIKE :name");
+            params.put("name", "%" + criteria.getName().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (criteria.getCardType() != null) {
+            jpql.append(" AND LOWER(c.cardType) LIKE :cardType");
+            params.put("cardType", "%" + criteria.getCardType().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (criteria.getOracleText() != null) {
+            // Sin índice en memoria el texto de reglas se busca como subcadena
+            jpql.append(" AND LOWER(c.oracleText) LIKE :oracleText");
+            params.put("oracleText",
+                    "%" + criteria.getOracleText().replace("\"", "").trim().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (criteria.getRarity() != null) {
+            jpql.append(" AND LOWER(c.rarity) = :rarity");
+            params.put("rarity", criteria.getRarity().toLowerCase(Locale.ROOT));
+        }
+        if (criteria.getSetCode() != null) {
+            jpql.append(" AND s.setCode = :setCode");
+            params.put("setCode", criteria.getSetCode());
+        }
+        if (criteria.getColorMask() != null) {
+            jpql.append(" AND c.colorMask IN :colorMasks");
+            params.put("colorMasks", criteria.getColorMatch().matchingMasks(criteria.getColorMask()));
+        }
+        if (criteria.getManaCostMin() != null) {
+            jpql.append(" AND c.manaValue >= :manaCostMin");
+            params.put("manaCostMin", criteria.getManaCostMin().doubleValue());
+        }
+        if (criteria.getManaCostMax() != null) {
+            jpql.append(" AND c.manaValue <= :manaCostMax");
+            params.put("manaCostMax", criteria.getManaCostMax().doubleValue());
+        }
+    }
+
+    /**
+     * Expresión JPQL equivalente a CardSortKeys.keyOf para cada campo.
+     */
+    private static String sortExpression(CardSortField sortField) {
+        return switch (sortField) {
+            case NAME -> "c.sortName";
+            case MANA_VALUE -> "COALESCE(c.manaValue, :nullManaValue)";
+            case RARITY -> rarityRankExpression();
+            case RELEASE_DATE -> "COALESCE(s.releaseDate, :nullReleaseDate)";
+        };
+    }
+
+    private static String rarityRankExpression() {
+        StringBuilder expression = new StringBuilder("CASE LOWER(c.rarity)");
+        List<String> order = CardSortKeys.RARITY_ORDER;
+        for (int rank = 0; rank < order.size(); rank++) {
+            expression.append(" WHEN '").append(order.get(rank)).append("' THEN ").append(rank);
+        }
+        return expression.append(" ELSE ").append(CardSortKeys.UNKNOWN_RARITY_RANK).append(" END").toString();
+    }
+}
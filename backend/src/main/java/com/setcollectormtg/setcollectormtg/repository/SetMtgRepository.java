@@ -1,13 +1,18 @@
 package com.setcollectormtg.setcollectormtg.repository;
 
 import com.setcollectormtg.setcollectormtg.model.SetMtg;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface SetMtgRepository extends JpaRepository<SetMtg, Long> {
+    // En la caché de consultas de Hibernate; se invalida con cualquier escritura en set_mtg
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SetMtg> findBySetCode(String setCode);
 
     boolean existsBySetCode(String setCode);
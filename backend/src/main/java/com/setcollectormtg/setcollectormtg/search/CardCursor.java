@@ -0,0 +1,80 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor de continuación de una búsqueda paginada por keyset: guarda la clave de
+ * ordenación y el ID de la última carta devuelta. La página siguiente empieza
+ * justo después de ese par, sin recorrer las anteriores.
+ *
+ * Se expone al cliente como una cadena Base64 opaca.
+ */
+@Getter
+public final class CardCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final CardSortField sortField;
+    private final boolean descending;
+    private final Comparable<?> sortKey;
+    private final long cardId;
+
+    CardCursor(CardSortField sortField, boolean descending, Comparable<?> sortKey, long cardId) {
+        this.sortField = sortField;
+        this.descending = descending;
+        this.sortKey = sortKey;
+        this.cardId = cardId;
+    }
+
+    /**
+     * Crea el cursor que apunta justo después de un documento.
+     */
+    public static CardCursor after(CardDocument document, CardSortField sortField, boolean descending) {
+        return new CardCursor(sortField, descending, CardSortKeys.keyOf(sortField, document), document.getCardId());
+    }
+
+    /**
+     * Compara el par (clave, ID) de un documento con el del cursor.
+     *
+     * @return negativo, cero o positivo si el documento va antes, en o después
+     *         del cursor en orden ascendente
+     */
+    int compareTo(Comparable<?> key, long otherCardId) {
+        int byKey = CardSortKeys.compare(key, sortKey);
+        return byKey != 0 ? byKey : Long.compare(otherCardId, cardId);
+    }
+
+    public String encode() {
+        // La clave va al final porque puede contener el separador
+        String raw = sortField.name() + SEPARATOR + (descending ? "DESC" : "ASC") + SEPARATOR + cardId + SEPARATOR
+                + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor y comprueba que corresponde a la misma ordenación.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido o fue generado
+     *                                  con otra ordenación
+     */
+    public static CardCursor decode(String encoded, CardSortField sortField, boolean descending) {
+        CardCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            CardSortField field = CardSortField.valueOf(parts[0]);
+            cursor = new CardCursor(field, "DESC".equals(parts[1]), CardSortKeys.parse(field, parts[3]),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded);
+        }
+        if (cursor.sortField != sortField || cursor.descending != descending) {
+            throw new IllegalArgumentException("Cursor was created for a different sort order");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,92 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.dto.CardDto;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.model.SetMtg;
+import com.setcollectormtg.setcollectormtg.util.CardNameNormalizer;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Copia inmutable de los campos de una carta que necesita el motor de búsqueda.
+ * Permite responder búsquedas sin volver a cargar la entidad desde la base de
+ * datos.
+ */
+@Getter
+@AllArgsConstructor
+public final class CardDocument {
+
+    private final Long cardId;
+    private final String name;
+    private final String sortName;
+    private final String rarity;
+    private final String oracleText;
+    private final Double manaValue;
+    private final String manaCost;
+    private final int colorMask;
+    private final String cardType;
+    private final String imageUrl;
+    private final Long setId;
+    private final String setCode;
+    private final LocalDate releaseDate;
+
+    /**
+     * Crea un documento a partir de la entidad. Debe llamarse dentro de la
+     * transacción que cargó la carta, ya que accede al set asociado.
+     *
+     * @param card Entidad de la carta
+     * @return Documento indexable
+     */
+    public static CardDocument from(Card card) {
+        SetMtg setMtg = card.getSetMtg();
+        return new CardDocument(
+                card.getCardId(),
+                card.getName(),
+                // Las filas aún sin clave persistida se calculan al vuelo
+                card.getSortName() != null ? card.getSortName() : CardNameNormalizer.sortKey(card.getName()),
+                card.getRarity(),
+                card.getOracleText(),
+                card.getManaValue(),
+                card.getManaCost(),
+                // Las filas aún sin máscara persistida se calculan al vuelo
+                card.getColorMask() != null ? card.getColorMask() : ManaCostParser.colorMask(card.getManaCost()),
+                card.getCardType(),
+                card.getImageUrl(),
+                setMtg != null ? setMtg.getSetId() : null,
+                setMtg != null ? setMtg.getSetCode() : null,
+                setMtg != null ? setMtg.getReleaseDate() : null);
+    }
+
+    /**
+     * Devuelve una copia del documento con otros datos de set.
+     */
+    public CardDocument withSet(String newSetCode, LocalDate newReleaseDate) {
+        return new CardDocument(cardId, name, sortName, rarity, oracleText, manaValue, manaCost, colorMask, cardType, imageUrl,
+                setId, newSetCode, newReleaseDate);
+    }
+
+    /**
+     * Convierte el documento al DTO expuesto por la API, con el mismo formato que
+     * CardMapper.toDto.
+     */
+    public CardDto toDto() {
+        return new CardDto(
+                cardId,
+                name,
+                rarity,
+                oracleText,
+                manaValue != null ? manaValue.intValue() : null,
+                manaCost,
+                cardType,
+                imageUrl,
+                setId);
+    }
+
+    static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
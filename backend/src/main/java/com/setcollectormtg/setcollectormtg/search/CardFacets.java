@@ -0,0 +1,72 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.dto.CardFacetsDto;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Acumula los recuentos por faceta (rareza, color, set y valor de maná) de un
+ * resultado de búsqueda. Los colores se cuentan por máscara en un array de 32
+ * posiciones y se reparten entre los cinco colores al final, así cada carta
+ * cuesta un único incremento.
+ */
+public final class CardFacets {
+
+    public static final int MAX_MANA_VALUE_BUCKET = 7;
+
+    private final Map<String, Long> rarityCounts = new TreeMap<>();
+    private final Map<String, Long> setCounts = new TreeMap<>();
+    private final long[] colorMaskCounts = new long[ManaCostParser.ALL_COLORS_MASK + 1];
+    private final long[] manaValueCounts = new long[MAX_MANA_VALUE_BUCKET + 1];
+
+    public void add(CardDocument document) {
+        add(document.getRarity(), document.getColorMask(), document.getSetCode(), document.getManaValue(), 1);
+    }
+
+    /**
+     * Suma count cartas con la combinación de valores indicada. Los valores nulos
+     * no cuentan en su faceta.
+     */
+    public void add(String rarity, int colorMask, String setCode, Double manaValue, long count) {
+        if (rarity != null) {
+            rarityCounts.merge(CardDocument.normalize(rarity), count, Long::sum);
+        }
+        if (setCode != null) {
+            setCounts.merge(setCode, count, Long::sum);
+        }
+        colorMaskCounts[colorMask & ManaCostParser.ALL_COLORS_MASK] += count;
+        if (manaValue != null) {
+            manaValueCounts[manaValueBucket(manaValue)] += count;
+        }
+    }
+
+    public CardFacetsDto toDto() {
+        Map<String, Long> colors = new LinkedHashMap<>();
+        for (char symbol : ManaCostParser.COLOR_SYMBOLS.toCharArray()) {
+            int bit = ManaCostParser.bitOf(symbol);
+            long count = 0;
+            for (int mask = 0; mask < colorMaskCounts.length; mask++) {
+                if ((mask & bit) != 0) {
+                    count += colorMaskCounts[mask];
+                }
+            }
+            colors.put(String.valueOf(symbol), count);
+        }
+        colors.put(ManaCostParser.COLORLESS_SYMBOL, colorMaskCounts[ManaCostParser.COLORLESS_MASK]);
+
+        Map<String, Long> manaValues = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < manaValueCounts.length; bucket++) {
+            manaValues.put(bucket == MAX_MANA_VALUE_BUCKET ? bucket + "+" : String.valueOf(bucket),
+                    manaValueCounts[bucket]);
+        }
+        return new CardFacetsDto(new LinkedHashMap<>(rarityCounts), colors, new LinkedHashMap<>(setCounts),
+                manaValues);
+    }
+
+    private static int manaValueBucket(double manaValue) {
+        return (int) Math.max(0, Math.min(MAX_MANA_VALUE_BUCKET, Math.floor(manaValue)));
+    }
+}
@@ -0,0 +1,301 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Árbol sintáctico de una consulta del lenguaje de búsqueda de cartas, por
+ * ejemplo {@code t:creature c>=ur mv<=3 o:"draw"}. Lo genera CardQueryParser y
+ * lo reordena CardQueryPlanner; después se ejecuta contra el índice en memoria o
+ * se traduce a una única consulta JPQL.
+ */
+public abstract sealed class CardQuery {
+
+    /**
+     * Coste relativo de evaluar el nodo. El planificador evalúa primero los
+     * nodos baratos para que los caros solo comprueben los candidatos que quedan.
+     */
+    abstract int cost();
+
+    /**
+     * Campos que se pueden consultar, con sus claves en el texto de la consulta.
+     */
+    public enum Field {
+        NAME("name", "n"),
+        TYPE("type", "t"),
+        ORACLE("oracle", "o"),
+        COLOR("color", "c"),
+        MANA_VALUE("mv", "cmc", "manavalue"),
+        RARITY("rarity", "r"),
+        SET("set", "s", "e", "edition");
+
+        private final List<String> keys;
+
+        Field(String... keys) {
+            this.keys = List.of(keys);
+        }
+
+        static Field fromKey(String key) {
+            for (Field field : values()) {
+                if (field.keys.contains(key)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown search field: " + key);
+        }
+
+        String key() {
+            return keys.get(0);
+        }
+    }
+
+    /**
+     * Operadores de comparación. MATCHES (":") significa "contiene" en los campos
+     * de texto, "incluye" en los colores e "igual" en el resto.
+     */
+    public enum Comparison {
+        MATCHES(":"),
+        EQUALS("="),
+        LESS("<"),
+        LESS_OR_EQUAL("<="),
+        GREATER(">"),
+        GREATER_OR_EQUAL(">=");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Comparison fromSymbol(String symbol) {
+            for (Comparison comparison : values()) {
+                if (comparison.symbol.equals(symbol)) {
+                    return comparison;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator: " + symbol);
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+
+        boolean isOrdering() {
+            return this != MATCHES && this != EQUALS;
+        }
+
+        /**
+         * Comprueba el resultado de comparar el valor de la carta con el buscado.
+         */
+        boolean test(int comparison) {
+            return switch (this) {
+                case MATCHES, EQUALS -> comparison == 0;
+                case LESS -> comparison < 0;
+                case LESS_OR_EQUAL -> comparison <= 0;
+                case GREATER -> comparison > 0;
+                case GREATER_OR_EQUAL -> comparison >= 0;
+            };
+        }
+    }
+
+    @Getter
+    public static final class And extends CardQuery {
+        private final List<CardQuery> children;
+
+        And(List<CardQuery> children) {
+            this.children = List.copyOf(children);
+        }
+
+        @Override
+        int cost() {
+            return children.stream().mapToInt(CardQuery::cost).max().orElse(0);
+        }
+
+        @Override
+        public String toString() {
+            return children.stream().map(CardQuery::toString).collect(Collectors.joining(" ", "(", ")"));
+        }
+    }
+
+    @Getter
+    public static final class Or extends CardQuery {
+        private final List<CardQuery> children;
+
+        Or(List<CardQuery> children) {
+            this.children = List.copyOf(children);
+        }
+
+        @Override
+        int cost() {
+            return children.stream().mapToInt(CardQuery::cost).max().orElse(0);
+        }
+
+        @Override
+        public String toString() {
+            return children.stream().map(CardQuery::toString).collect(Collectors.joining(" or ", "(", ")"));
+        }
+    }
+
+    @Getter
+    public static final class Not extends CardQuery {
+        private final CardQuery child;
+
+        Not(CardQuery child) {
+            this.child = child;
+        }
+
+        @Override
+        int cost() {
+            // La negación se resuelve sobre los candidatos que dejan los demás
+            return child.cost() + 1;
+        }
+
+        @Override
+        public String toString() {
+            return "-" + child;
+        }
+    }
+
+    /**
+     * Condición sobre un campo. Los valores se normalizan al construirla: texto
+     * en minúsculas, rarezas y colores como listas de valores aceptados y valor
+     * de maná como número.
+     */
+    @Getter
+    public static final class Predicate extends CardQuery {
+
+        private static final Map<String, String> RARITY_ALIASES = Map.of(
+                "c", "common", "u", "uncommon", "r", "rare", "m", "mythic", "s", "special", "b", "bonus");
+
+        private final Field field;
+        private final Comparison comparison;
+        private final String value;
+        // El valor iba entre comillas: en el texto de reglas se busca como frase
+        private final boolean phrase;
+        private final Double number;
+        private final List<String> rarities;
+        private final List<Integer> colorMasks;
+
+        private Predicate(Field field, Comparison comparison, String value, boolean phrase, Double number,
+                List<String> rarities, List<Integer> colorMasks) {
+            this.field = field;
+            this.comparison = comparison;
+            this.value = value;
+            this.phrase = phrase;
+            this.number = number;
+            this.rarities = rarities;
+            this.colorMasks = colorMasks;
+        }
+
+        /**
+         * Crea una condición validando que el operador tiene sentido para el campo.
+         *
+         * @throws IllegalArgumentException si el operador o el valor no son válidos
+         */
+        static Predicate of(Field field, Comparison comparison, String rawValue, boolean phrase) {
+            String value = CardDocument.normalize(rawValue.trim());
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Missing value for " + field.key());
+            }
+            switch (field) {
+                case NAME, TYPE, ORACLE, SET -> {
+                    if (comparison.isOrdering()) {
+                        throw new IllegalArgumentException(
+                                "Operator " + comparison.symbol() + " is not supported for " + field.key());
+                    }
+                    return new Predicate(field, comparison, value, phrase, null, null, null);
+                }
+                case RARITY -> {
+                    String rarity = RARITY_ALIASES.getOrDefault(value, value);
+                    if (!CardSortKeys.RARITY_ORDER.contains(rarity)) {
+                        throw new IllegalArgumentException("Unknown rarity: " + rawValue);
+                    }
+                    return new Predicate(field, comparison, rarity, phrase, null, rarities(comparison, rarity),
+                            null);
+                }
+                case COLOR -> {
+                    return new Predicate(field, comparison, value, phrase, null, null,
+                            colorMasks(comparison, value));
+                }
+                case MANA_VALUE -> {
+                    try {
+                        return new Predicate(field, comparison, value, phrase, Double.valueOf(value), null, null);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid mana value: " + rawValue);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown search field: " + field);
+            }
+        }
+
+        /**
+         * Términos del valor tal como los separa el índice de texto de reglas.
+         */
+        public List<String> terms() {
+            return OracleTextIndex.tokenize(value);
+        }
+
+        @Override
+        int cost() {
+            return switch (field) {
+                case SET -> 0;
+                case RARITY -> comparison.isOrdering() ? 1 : 0;
+                case COLOR, MANA_VALUE -> 1;
+                case NAME, TYPE -> 2;
+                case ORACLE -> 3;
+            };
+        }
+
+        @Override
+        public String toString() {
+            return field.key() + comparison.symbol() + (phrase ? "\"" + value + "\"" : value);
+        }
+
+        /**
+         * Rarezas de CardSortKeys.RARITY_ORDER que cumplen la comparación con la
+         * buscada; las rarezas desconocidas no cumplen ninguna.
+         */
+        private static List<String> rarities(Comparison comparison, String rarity) {
+            int rank = CardSortKeys.rarityRank(rarity);
+            return CardSortKeys.RARITY_ORDER.stream()
+                    .filter(r -> comparison.test(Integer.compare(CardSortKeys.rarityRank(r), rank)))
+                    .toList();
+        }
+
+        /**
+         * Máscaras de colores que cumplen la comparación, tratando los colores
+         * como conjuntos: ":" y ">=" piden al menos esos colores ("c:c" pide
+         * incoloras), "=" exactamente esos y "<=" ninguno más.
+         */
+        private static List<Integer> colorMasks(Comparison comparison, String value) {
+            int queryMask = value.equals("c") || value.equals("colorless")
+                    ? ManaCostParser.COLORLESS_MASK
+                    : ManaCostParser.maskOf(Arrays.asList(value.split("")));
+            List<Integer> masks = new ArrayList<>();
+            for (int mask = 0; mask <= ManaCostParser.ALL_COLORS_MASK; mask++) {
+                boolean superset = (mask & queryMask) == queryMask;
+                boolean subset = (mask & ~queryMask) == 0;
+                boolean accepted = switch (comparison) {
+                    case MATCHES -> queryMask == ManaCostParser.COLORLESS_MASK
+                            ? mask == ManaCostParser.COLORLESS_MASK
+                            : superset;
+                    case EQUALS -> mask == queryMask;
+                    case GREATER_OR_EQUAL -> superset;
+                    case GREATER -> superset && mask != queryMask;
+                    case LESS_OR_EQUAL -> subset;
+                    case LESS -> subset && mask != queryMask;
+                };
+                if (accepted) {
+                    masks.add(mask);
+                }
+            }
+            return List.copyOf(masks);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Analizador descendente recursivo del lenguaje de búsqueda de cartas.
+ *
+ * <pre>
+ * consulta  := and ("or" and)*
+ * and       := unario+               (los términos seguidos se combinan con AND;
+ *                                     se admite "and" explícito)
+ * unario    := "-" unario | "(" consulta ")" | término
+ * término   := campo operador valor | valor
+ * operador  := ":" | "=" | "<" | "<=" | ">" | ">="
+ * valor     := palabra | "texto entre comillas"
+ * </pre>
+ *
+ * Un valor sin campo busca en el nombre. Los campos admitidos son los de
+ * CardQuery.Field, por ejemplo {@code t:creature c>=ur mv<=3 o:"draw a card"}.
+ */
+public final class CardQueryParser {
+
+    private static final String OPERATOR_CHARS = ":=<>";
+
+    private final String input;
+    private int position;
+
+    private CardQueryParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Analiza el texto de una consulta.
+     *
+     * @param query Texto de la consulta
+     * @return Árbol sintáctico sin optimizar
+     * @throws IllegalArgumentException si la consulta no es válida
+     */
+    public static CardQuery parse(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be empty");
+        }
+        CardQueryParser parser = new CardQueryParser(query);
+        CardQuery result = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected '" + parser.peek() + "'");
+        }
+        return result;
+    }
+
+    private CardQuery parseOr() {
+        List<CardQuery> alternatives = new ArrayList<>();
+        alternatives.add(parseAnd());
+        while (consumeKeyword("or")) {
+            alternatives.add(parseAnd());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new CardQuery.Or(alternatives);
+    }
+
+    private CardQuery parseAnd() {
+        List<CardQuery> terms = new ArrayList<>();
+        while (true) {
+            skipWhitespace();
+            if (atEnd() || peek() == ')' || peekKeyword("or")) {
+                break;
+            }
+            if (consumeKeyword("and")) {
+                continue;
+            }
+            terms.add(parseUnary());
+        }
+        if (terms.isEmpty()) {
+            throw error("Expected a search term");
+        }
+        return terms.size() == 1 ? terms.get(0) : new CardQuery.And(terms);
+    }
+
+    private CardQuery parseUnary() {
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("Expected a search term");
+        }
+        if (peek() == '-') {
+            position++;
+            return new CardQuery.Not(parseUnary());
+        }
+        if (peek() == '(') {
+            position++;
+            CardQuery inner = parseOr();
+            skipWhitespace();
+            if (atEnd() || peek() != ')') {
+                throw error("Expected ')'");
+            }
+            position++;
+            return inner;
+        }
+        return parseTerm();
+    }
+
+    private CardQuery parseTerm() {
+        if (peek() == '"') {
+            return CardQuery.Predicate.of(CardQuery.Field.NAME, CardQuery.Comparison.MATCHES, readQuoted(), true);
+        }
+        int start = position;
+        while (!atEnd() && Character.isLetter(peek())) {
+            position++;
+        }
+        if (position > start && !atEnd() && OPERATOR_CHARS.indexOf(peek()) >= 0) {
+            CardQuery.Field field = CardQuery.Field.fromKey(input.substring(start, position).toLowerCase(Locale.ROOT));
+            CardQuery.Comparison comparison = CardQuery.Comparison.fromSymbol(readOperator());
+            if (!atEnd() && peek() == '"') {
+                return CardQuery.Predicate.of(field, comparison, readQuoted(), true);
+            }
+            String value = readWord();
+            if (value.isEmpty()) {
+                throw error("Missing value for " + field.key());
+            }
+            return CardQuery.Predicate.of(field, comparison, value, false);
+        }
+        position = start;
+        return CardQuery.Predicate.of(CardQuery.Field.NAME, CardQuery.Comparison.MATCHES, readWord(), false);
+    }
+
+    private String readOperator() {
+        int start = position;
+        position++;
+        if (!atEnd() && peek() == '=' && input.charAt(start) != ':' && input.charAt(start) != '=') {
+            position++;
+        }
+        return input.substring(start, position);
+    }
+
+    private String readQuoted() {
+        int start = ++position;
+        while (!atEnd() && peek() != '"') {
+            position++;
+        }
+        if (atEnd()) {
+            throw error("Unterminated quoted text");
+        }
+        return input.substring(start, position++);
+    }
+
+    private String readWord() {
+        int start = position;
+        while (!atEnd() && !Character.isWhitespace(peek()) && peek() != '(' && peek() != ')') {
+            position++;
+        }
+        return input.substring(start, position);
+    }
+
+    private boolean peekKeyword(String keyword) {
+        int end = position + keyword.length();
+        return input.regionMatches(true, position, keyword, 0, keyword.length())
+                && (end == input.length() || Character.isWhitespace(input.charAt(end)) || input.charAt(end) == '(');
+    }
+
+    private boolean consumeKeyword(String keyword) {
+        skipWhitespace();
+        if (peekKeyword(keyword)) {
+            position += keyword.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(peek())) {
+            position++;
+        }
+    }
+
+    private boolean atEnd() {
+        return position >= input.length();
+    }
+
+    private char peek() {
+        return input.charAt(position);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in query: " + input);
+    }
+}
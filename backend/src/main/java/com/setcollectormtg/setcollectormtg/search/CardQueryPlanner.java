@@ -0,0 +1,128 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compila el texto de una consulta en un plan de ejecución.
+ *
+ * El plan es el árbol sintáctico simplificado: se aplanan los AND y OR
+ * anidados, se eliminan las dobles negaciones y los hijos de cada nodo se
+ * ordenan por coste, de modo que los filtros que se resuelven con un BitSet
+ * (set, rareza, color, valor de maná) reducen los candidatos antes de los de
+ * texto, que necesitan verificación. Los planes se guardan en una caché LRU
+ * por texto normalizado, así que una consulta repetida no se vuelve a analizar.
+ */
+@Component
+public class CardQueryPlanner {
+
+    static final int PLAN_CACHE_SIZE = 1024;
+
+    private final Map<String, CardQuery> plans = new LinkedHashMap<>(PLAN_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CardQuery> eldest) {
+            return size() > PLAN_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Devuelve el plan de una consulta, desde la caché si ya se compiló.
+     *
+     * @param query Texto de la consulta
+     * @return Plan listo para ejecutar
+     * @throws IllegalArgumentException si la consulta no es válida
+     */
+    public CardQuery compile(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be empty");
+        }
+        String key = normalize(query);
+        synchronized (plans) {
+            CardQuery cached = plans.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        CardQuery plan = plan(CardQueryParser.parse(query));
+        synchronized (plans) {
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Simplifica y reordena un árbol sintáctico.
+     */
+    static CardQuery plan(CardQuery query) {
+        if (query instanceof CardQuery.And and) {
+            List<CardQuery> children = flatten(and.getChildren(), CardQuery.And.class);
+            return children.size() == 1 ? children.get(0) : new CardQuery.And(children);
+        }
+        if (query instanceof CardQuery.Or or) {
+            List<CardQuery> children = flatten(or.getChildren(), CardQuery.Or.class);
+            return children.size() == 1 ? children.get(0) : new CardQuery.Or(children);
+        }
+        if (query instanceof CardQuery.Not not) {
+            if (not.getChild() instanceof CardQuery.Not inner) {
+                return plan(inner.getChild());
+            }
+            return new CardQuery.Not(plan(not.getChild()));
+        }
+        return query;
+    }
+
+    int cachedPlans() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    /**
+     * Planifica los hijos, absorbe los que son del mismo tipo que el padre y
+     * los ordena por coste. La ordenación es estable: a igual coste se respeta
+     * el orden escrito.
+     */
+    private static List<CardQuery> flatten(List<CardQuery> children, Class<? extends CardQuery> type) {
+        List<CardQuery> flat = new ArrayList<>(children.size());
+        for (CardQuery child : children) {
+            CardQuery planned = plan(child);
+            if (type.isInstance(planned)) {
+                flat.addAll(planned instanceof CardQuery.And and ? and.getChildren()
+                        : ((CardQuery.Or) planned).getChildren());
+            } else {
+                flat.add(planned);
+            }
+        }
+        flat.sort(Comparator.comparingInt(CardQuery::cost));
+        return flat;
+    }
+
+    /**
+     * Clave de la caché de planes: sin espacios repetidos ni mayúsculas, salvo
+     * los espacios entre comillas, que forman parte del valor buscado.
+     */
+    private static String normalize(String query) {
+        String trimmed = query.trim().toLowerCase(Locale.ROOT);
+        StringBuilder key = new StringBuilder(trimmed.length());
+        boolean quoted = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && Character.isWhitespace(c)) {
+                if (key.charAt(key.length() - 1) != ' ') {
+                    key.append(' ');
+                }
+                continue;
+            }
+            key.append(c);
+        }
+        return key.toString();
+    }
+}
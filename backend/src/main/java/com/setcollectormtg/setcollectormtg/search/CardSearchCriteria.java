@@ -0,0 +1,25 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.enums.ColorMatch;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Filtros de una búsqueda de cartas. Los campos nulos no se aplican.
+ */
+@Getter
+@Builder
+public class CardSearchCriteria {
+    private String name;
+    private String cardType;
+    // Términos del texto de reglas; entre comillas se busca como frase exacta
+    private String oracleText;
+    private String rarity;
+    private String setCode;
+    // Máscara de colores buscada (ver ManaCostParser); 0 equivale a incoloro
+    private Integer colorMask;
+    @Builder.Default
+    private ColorMatch colorMatch = ColorMatch.INCLUDES;
+    private Integer manaCostMin;
+    private Integer manaCostMax;
+}
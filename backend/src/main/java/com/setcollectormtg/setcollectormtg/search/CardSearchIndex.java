@@ -0,0 +1,801 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.enums.ColorMatch;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Motor de búsqueda de cartas en memoria.
+ *
+ * Mantiene índices de trigramas sobre el nombre y el tipo, un índice de palabras
+ * con puntuación BM25 sobre el texto de reglas, e índices invertidos sobre la
+ * rareza, el código de set, la máscara de colores y el valor de maná.
+ * Se construye al arrancar la aplicación desde CardRepository y se actualiza
+ * tras el commit de cada escritura, de modo que las búsquedas no acceden a la
+ * base de datos.
+ *
+ * Cada carta recibe un ordinal interno denso; los filtros de baja cardinalidad
+ * se guardan como BitSet y los de texto como listas de ordinales comprimidas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CardSearchIndex {
+
+    private static final int LOAD_BATCH_SIZE = 2000;
+    public static final int MAX_SUGGESTIONS = NameTrie.MAX_SUGGESTIONS;
+
+    private final CardRepository cardRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // Documentos por ordinal; las posiciones de cartas borradas quedan a null
+    private final List<CardDocument> documents = new ArrayList<>();
+    private final List<String> normalizedNames = new ArrayList<>();
+    private final List<String> normalizedTypes = new ArrayList<>();
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    private final TrigramIndex nameGrams = new TrigramIndex();
+    private final TrigramIndex typeGrams = new TrigramIndex();
+    private final OracleTextIndex oracleText = new OracleTextIndex();
+    // Entradas de trigramas que ya no corresponden al valor actual de la carta
+    private int staleTextEntries;
+    private final Map<String, BitSet> byRarity = new HashMap<>();
+    private final Map<String, BitSet> bySetCode = new HashMap<>();
+    // Un BitSet por cada una de las 32 combinaciones de colores
+    private final BitSet[] byColorMask = new BitSet[32];
+    private final NavigableMap<Double, BitSet> byManaValue = new TreeMap<>();
+    // Ordinales vivos ordenados por (clave, ID) para cada campo; se calculan bajo
+    // demanda y se descartan en cada escritura
+    private final Map<CardSortField, int[]> sortedOrdinals = new ConcurrentHashMap<>();
+    // Trie de nombres para autocompletar y para la búsqueda aproximada; se
+    // mantiene al día en cada escritura, con el write lock
+    private final NameTrie nameTrie = new NameTrie(documents, normalizedNames);
+
+    /**
+     * Construye el índice al terminar el arranque de la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Sin índice, las búsquedas siguen resolviéndose contra la base de datos
+            log.error("Error construyendo el índice de búsqueda de cartas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reconstruye el índice completo leyendo las cartas por lotes ordenados por
+     * ID. Las escrituras concurrentes esperan a que termine y se aplican después.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            clear();
+            long lastId = 0L;
+            List<Card> batch;
+            do {
+                batch = cardRepository.findBatchWithSetAfter(lastId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+                for (Card card : batch) {
+                    put(CardDocument.from(card));
+                    lastId = card.getCardId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            nameGrams.freeze();
+            typeGrams.freeze();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda construido con {} cartas en {} ms", size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indica si el índice está construido y puede responder búsquedas.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entradas de trigramas obsoletas pendientes de compactar y si quedan altas
+     * sin comprimir en los índices de nombre o tipo.
+     */
+    int staleTextEntries() {
+        lock.readLock().lock();
+        try {
+            return staleTextEntries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean hasUncompressedTextPostings() {
+        lock.readLock().lock();
+        try {
+            return nameGrams.hasPendingPostings() || typeGrams.hasPendingPostings();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa (o reindexa) una carta cuando la transacción actual hace commit.
+     * El documento se captura en este momento, mientras la entidad está cargada.
+     *
+     * @param card Carta guardada
+     */
+    public void index(Card card) {
+        CardDocument document = CardDocument.from(card);
+        afterCommit(() -> write(() -> put(document)));
+    }
+
+    /**
+     * Indexa un conjunto de cartas cuando la transacción actual hace commit.
+     *
+     * @param cards Cartas guardadas
+     */
+    public void indexAll(Collection<Card> cards) {
+        List<CardDocument> captured = cards.stream().map(CardDocument::from).toList();
+        afterCommit(() -> write(() -> {
+            captured.forEach(this::put);
+            // Cada lote de una importación deja sus altas comprimidas
+            nameGrams.freeze();
+            typeGrams.freeze();
+        }));
+    }
+
+    /**
+     * Elimina una carta del índice cuando la transacción actual hace commit.
+     *
+     * @param cardId ID de la carta borrada
+     */
+    public void remove(Long cardId) {
+        afterCommit(() -> write(() -> delete(cardId)));
+    }
+
+    /**
+     * Actualiza el código y la fecha de lanzamiento de todas las cartas
+     * indexadas de un set.
+     *
+     * @param setId       ID del set modificado
+     * @param setCode     Nuevo código del set
+     * @param releaseDate Nueva fecha de lanzamiento
+     */
+    public void refreshSet(Long setId, String setCode, LocalDate releaseDate) {
+        afterCommit(() -> write(() -> {
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                CardDocument document = documents.get(ordinal);
+                if (setId.equals(document.getSetId())) {
+                    put(document.withSet(setCode, releaseDate));
+                }
+            }
+        }));
+    }
+
+    /**
+     * Busca las cartas que cumplen todos los criterios. Aplica primero los
+     * filtros exactos con operaciones AND sobre BitSet y después los de texto,
+     * que se resuelven con el índice de trigramas y una verificación final.
+     *
+     * @param criteria Filtros de búsqueda
+     * @return Documentos encontrados en orden de indexación, o por relevancia si
+     *         se filtra por texto de reglas
+     */
+    public List<CardDocument> search(CardSearchCriteria criteria) {
+        return search(criteria, null);
+    }
+
+    /**
+     * Igual que search(criteria), pero además acumula los recuentos por faceta
+     * de los resultados en el mismo recorrido.
+     *
+     * @param criteria Filtros de búsqueda
+     * @param facets   Acumulador de facetas o null para no contarlas
+     * @return Documentos encontrados en orden de indexación, o por relevancia si
+     *         se filtra por texto de reglas
+     */
+    public List<CardDocument> search(CardSearchCriteria criteria, CardFacets facets) {
+        lock.readLock().lock();
+        try {
+            int[] ordinals = matching(criteria).stream().toArray();
+            if (criteria.getOracleText() != null) {
+                ordinals = rankByOracleText(ordinals, criteria.getOracleText());
+            }
+            List<CardDocument> found = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                CardDocument document = documents.get(ordinal);
+                found.add(document);
+                if (facets != null) {
+                    facets.add(document);
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta un plan de CardQueryPlanner. Cada nodo se evalúa solo sobre los
+     * candidatos que le llegan: los hijos de un AND reciben el resultado del
+     * anterior y los de un OR solo las cartas que aún no han casado.
+     *
+     * @param query Plan de la consulta
+     * @return Documentos encontrados en orden de indexación
+     */
+    public List<CardDocument> search(CardQuery query) {
+        lock.readLock().lock();
+        try {
+            return toDocuments(evaluate(query, live).stream().toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sugiere cartas cuyo nombre empieza por el prefijo, sin distinguir
+     * mayúsculas, con una sola impresión por nombre: la del set más reciente.
+     *
+     * @param prefix Prefijo del nombre
+     * @param limit  Número máximo de sugerencias
+     * @return Documentos sugeridos por orden de relevancia
+     */
+    public List<CardDocument> suggest(String prefix, int limit) {
+        String normalized = CardDocument.normalize(prefix);
+        lock.readLock().lock();
+        try {
+            return toDocuments(nameTrie.suggest(normalized, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca cartas cuyo nombre está a una distancia de edición (Levenshtein) de
+     * como máximo maxDistance del texto buscado, sin distinguir mayúsculas. Se
+     * resuelve recorriendo el trie de nombres y se devuelve una impresión por
+     * nombre, la del set más reciente.
+     *
+     * @param name        Nombre aproximado
+     * @param maxDistance Distancia de edición máxima
+     * @param limit       Número máximo de cartas
+     * @return Documentos ordenados por distancia y después por relevancia
+     */
+    public List<CardDocument> searchFuzzy(String name, int maxDistance, int limit) {
+        String normalized = CardDocument.normalize(name);
+        lock.readLock().lock();
+        try {
+            return toDocuments(nameTrie.fuzzy(normalized, maxDistance, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve una página de resultados ordenada, empezando justo después del
+     * cursor. La posición del cursor se localiza con búsqueda binaria sobre los
+     * ordinales ordenados, así que el coste no depende de la profundidad de la
+     * página.
+     *
+     * @param criteria   Filtros de búsqueda
+     * @param sortField  Campo de ordenación
+     * @param descending true para orden descendente
+     * @param after      Cursor de la página anterior o null para la primera
+     * @param limit      Número máximo de documentos a devolver
+     * @return Documentos de la página en orden
+     */
+    public List<CardDocument> page(CardSearchCriteria criteria, CardSortField sortField, boolean descending,
+            CardCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet result = matching(criteria);
+            int[] order = sortedOrdinals.computeIfAbsent(sortField, this::sortLive);
+            List<CardDocument> page = new ArrayList<>(Math.min(limit, result.cardinality()));
+            if (!descending) {
+                for (int i = after != null ? seek(order, sortField, after) : 0; i < order.length
+                        && page.size() < limit; i++) {
+                    if (result.get(order[i])) {
+                        page.add(documents.get(order[i]));
+                    }
+                }
+            } else {
+                for (int i = after != null ? seek(order, sortField, after) - 1 : order.length - 1; i >= 0
+                        && page.size() < limit; i--) {
+                    if (result.get(order[i])) {
+                        page.add(documents.get(order[i]));
+                    }
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Primera posición de order cuyo par (clave, ID) es mayor que el del cursor
+     * si el orden es ascendente. Si es descendente devuelve la primera igual o
+     * mayor, y la página se recorre hacia atrás desde la posición anterior.
+     */
+    private int seek(int[] order, CardSortField sortField, CardCursor cursor) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            CardDocument document = documents.get(order[mid]);
+            int cmp = cursor.compareTo(CardSortKeys.keyOf(sortField, document), document.getCardId());
+            if (cmp < 0 || (cmp == 0 && !cursor.isDescending())) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] sortLive(CardSortField sortField) {
+        Comparable<?>[] keys = new Comparable<?>[documents.size()];
+        Integer[] ordinals = new Integer[live.cardinality()];
+        int n = 0;
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            keys[ordinal] = CardSortKeys.keyOf(sortField, documents.get(ordinal));
+            ordinals[n++] = ordinal;
+        }
+        Arrays.sort(ordinals, (a, b) -> {
+            int byKey = CardSortKeys.compare(keys[a], keys[b]);
+            return byKey != 0 ? byKey : documents.get(a).getCardId().compareTo(documents.get(b).getCardId());
+        });
+        int[] order = new int[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            order[i] = ordinals[i];
+        }
+        return order;
+    }
+
+    private BitSet matching(CardSearchCriteria criteria) {
+        BitSet result = (BitSet) live.clone();
+
+        if (criteria.getRarity() != null) {
+            and(result, byRarity.get(CardDocument.normalize(criteria.getRarity())));
+        }
+        if (criteria.getSetCode() != null) {
+            and(result, bySetCode.get(CardDocument.normalize(criteria.getSetCode())));
+        }
+        if (criteria.getColorMask() != null) {
+            result.and(colorMatching(criteria.getColorMask(), criteria.getColorMatch()));
+        }
+        if (criteria.getManaCostMin() != null || criteria.getManaCostMax() != null) {
+            result.and(manaValueRange(criteria.getManaCostMin(), criteria.getManaCostMax()));
+        }
+        if (criteria.getName() != null && !result.isEmpty()) {
+            applyText(result, criteria.getName(), nameGrams, normalizedNames);
+        }
+        if (criteria.getCardType() != null && !result.isEmpty()) {
+            applyText(result, criteria.getCardType(), typeGrams, normalizedTypes);
+        }
+        if (criteria.getOracleText() != null && !result.isEmpty()) {
+            applyOracleText(result, criteria.getOracleText());
+        }
+        return result;
+    }
+
+    /**
+     * Cartas de candidates que cumplen el nodo. No modifica candidates.
+     */
+    private BitSet evaluate(CardQuery query, BitSet candidates) {
+        if (query instanceof CardQuery.And and) {
+            BitSet result = candidates;
+            for (CardQuery child : and.getChildren()) {
+                result = evaluate(child, result);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+        if (query instanceof CardQuery.Or or) {
+            BitSet union = new BitSet();
+            BitSet remaining = (BitSet) candidates.clone();
+            for (CardQuery child : or.getChildren()) {
+                BitSet matched = evaluate(child, remaining);
+                union.or(matched);
+                remaining.andNot(matched);
+                if (remaining.isEmpty()) {
+                    break;
+                }
+            }
+            return union;
+        }
+        if (query instanceof CardQuery.Not not) {
+            BitSet result = (BitSet) candidates.clone();
+            result.andNot(evaluate(not.getChild(), candidates));
+            return result;
+        }
+        BitSet result = (BitSet) candidates.clone();
+        if (!result.isEmpty()) {
+            applyPredicate(result, (CardQuery.Predicate) query);
+        }
+        return result;
+    }
+
+    private void applyPredicate(BitSet result, CardQuery.Predicate predicate) {
+        switch (predicate.getField()) {
+            case NAME -> applyText(result, predicate, nameGrams, normalizedNames);
+            case TYPE -> applyText(result, predicate, typeGrams, normalizedTypes);
+            case ORACLE -> applyOracleTerms(result, predicate.terms(), predicate.isPhrase());
+            case SET -> and(result, bySetCode.get(predicate.getValue()));
+            case RARITY -> {
+                BitSet union = new BitSet();
+                for (String rarity : predicate.getRarities()) {
+                    BitSet bits = byRarity.get(rarity);
+                    if (bits != null) {
+                        union.or(bits);
+                    }
+                }
+                result.and(union);
+            }
+            case COLOR -> {
+                BitSet union = new BitSet();
+                for (int mask : predicate.getColorMasks()) {
+                    if (byColorMask[mask] != null) {
+                        union.or(byColorMask[mask]);
+                    }
+                }
+                result.and(union);
+            }
+            case MANA_VALUE -> {
+                double value = predicate.getNumber();
+                NavigableMap<Double, BitSet> range = switch (predicate.getComparison()) {
+                    case MATCHES, EQUALS -> byManaValue.subMap(value, true, value, true);
+                    case LESS -> byManaValue.headMap(value, false);
+                    case LESS_OR_EQUAL -> byManaValue.headMap(value, true);
+                    case GREATER -> byManaValue.tailMap(value, false);
+                    case GREATER_OR_EQUAL -> byManaValue.tailMap(value, true);
+                };
+                BitSet union = new BitSet();
+                range.values().forEach(union::or);
+                result.and(union);
+            }
+        }
+    }
+
+    /**
+     * Filtra por texto con el índice de trigramas; con "=" el valor normalizado
+     * tiene que ser exactamente el buscado.
+     */
+    private void applyText(BitSet result, CardQuery.Predicate predicate, TrigramIndex grams,
+            List<String> normalizedValues) {
+        applyText(result, predicate.getValue(), grams, normalizedValues);
+        if (predicate.getComparison() == CardQuery.Comparison.EQUALS) {
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                if (!predicate.getValue().equals(normalizedValues.get(ordinal))) {
+                    result.clear(ordinal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deja en el resultado las cartas cuyo texto de reglas contiene todos los
+     * términos de la consulta. Si la consulta va entre comillas, los términos
+     * deben aparecer además seguidos y en el mismo orden.
+     */
+    private void applyOracleText(BitSet result, String query) {
+        applyOracleTerms(result, OracleTextIndex.tokenize(query), isPhrase(query));
+    }
+
+    private void applyOracleTerms(BitSet result, List<String> terms, boolean phrase) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        result.and(oracleText.matchingAll(terms));
+        if (phrase) {
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                List<String> tokens = OracleTextIndex.tokenize(documents.get(ordinal).getOracleText());
+                if (Collections.indexOfSubList(tokens, terms) < 0) {
+                    result.clear(ordinal);
+                }
+            }
+        }
+    }
+
+    private static boolean isPhrase(String query) {
+        String trimmed = query.trim();
+        return trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"");
+    }
+
+    /**
+     * Ordena los ordinales por puntuación BM25 descendente para la consulta; a
+     * igual puntuación se mantiene el orden de indexación.
+     */
+    private int[] rankByOracleText(int[] ordinals, String query) {
+        double[] scores = oracleText.scores(OracleTextIndex.tokenize(query), ordinals);
+        Integer[] order = new Integer[ordinals.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        int[] ranked = new int[ordinals.length];
+        for (int i = 0; i < order.length; i++) {
+            ranked[i] = ordinals[order[i]];
+        }
+        return ranked;
+    }
+
+    /**
+     * Une los BitSet de todas las combinaciones de colores que cumplen el modo
+     * de comparación: cualquier filtro de color es una sola unión de bitmaps.
+     */
+    private BitSet colorMatching(int queryMask, ColorMatch colorMatch) {
+        BitSet union = new BitSet();
+        for (int mask : colorMatch.matchingMasks(queryMask)) {
+            if (byColorMask[mask] != null) {
+                union.or(byColorMask[mask]);
+            }
+        }
+        return union;
+    }
+
+    private BitSet manaValueRange(Integer min, Integer max) {
+        NavigableMap<Double, BitSet> range;
+        if (min != null && max != null) {
+            if (min > max) {
+                return new BitSet();
+            }
+            range = byManaValue.subMap(min.doubleValue(), true, max.doubleValue(), true);
+        } else if (min != null) {
+            range = byManaValue.tailMap(min.doubleValue(), true);
+        } else {
+            range = byManaValue.headMap(max.doubleValue(), true);
+        }
+        BitSet union = new BitSet();
+        range.values().forEach(union::or);
+        return union;
+    }
+
+    /**
+     * Filtra por subcadena (equivalente a LIKE '%texto%'). El índice de
+     * trigramas devuelve los candidatos que contienen todos los trigramas de la
+     * consulta y solo esos se verifican contra el valor completo. Las consultas
+     * de menos de tres caracteres se verifican sobre el resultado actual.
+     */
+    private void applyText(BitSet result, String text, TrigramIndex grams, List<String> normalizedValues) {
+        String query = CardDocument.normalize(text);
+        int[] candidates = grams.candidates(query);
+        if (candidates != null) {
+            BitSet verified = new BitSet();
+            for (int ordinal : candidates) {
+                if (result.get(ordinal) && contains(normalizedValues.get(ordinal), query)) {
+                    verified.set(ordinal);
+                }
+            }
+            result.clear();
+            result.or(verified);
+            return;
+        }
+        for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+            if (!contains(normalizedValues.get(ordinal), query)) {
+                result.clear(ordinal);
+            }
+        }
+    }
+
+    private static boolean contains(String value, String query) {
+        return value != null && value.contains(query);
+    }
+
+    private static void and(BitSet result, BitSet filter) {
+        if (filter == null) {
+            result.clear();
+        } else {
+            result.and(filter);
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ---- Mutaciones internas; requieren el write lock ----
+
+    private void clear() {
+        documents.clear();
+        normalizedNames.clear();
+        normalizedTypes.clear();
+        ordinalsById.clear();
+        live.clear();
+        nameGrams.clear();
+        typeGrams.clear();
+        oracleText.clear();
+        staleTextEntries = 0;
+        byRarity.clear();
+        bySetCode.clear();
+        Arrays.fill(byColorMask, null);
+        byManaValue.clear();
+        sortedOrdinals.clear();
+        nameTrie.clear();
+    }
+
+    private void put(CardDocument document) {
+        sortedOrdinals.clear();
+        Integer existing = ordinalsById.get(document.getCardId());
+        int ordinal;
+        boolean trieChanged = true;
+        boolean nameChanged = true;
+        boolean typeChanged = true;
+        if (existing != null) {
+            CardDocument previous = documents.get(existing);
+            unindex(existing, previous);
+            // El orden del trie depende del nombre y de la fecha del set
+            trieChanged = !Objects.equals(previous.getName(), document.getName())
+                    || !Objects.equals(previous.getReleaseDate(), document.getReleaseDate());
+            if (trieChanged) {
+                nameTrie.remove(existing);
+            }
+            ordinal = existing;
+            documents.set(ordinal, document);
+            String normalizedName = CardDocument.normalize(document.getName());
+            String normalizedType = CardDocument.normalize(document.getCardType());
+            // Si el nombre y el tipo normalizados no cambian, sus trigramas siguen valiendo
+            nameChanged = !Objects.equals(normalizedNames.set(ordinal, normalizedName), normalizedName);
+            typeChanged = !Objects.equals(normalizedTypes.set(ordinal, normalizedType), normalizedType);
+            if (nameChanged || typeChanged) {
+                staleTextEntries++;
+            }
+        } else {
+            ordinal = documents.size();
+            documents.add(document);
+            normalizedNames.add(CardDocument.normalize(document.getName()));
+            normalizedTypes.add(CardDocument.normalize(document.getCardType()));
+            ordinalsById.put(document.getCardId(), ordinal);
+        }
+        live.set(ordinal);
+        if (trieChanged) {
+            nameTrie.add(ordinal);
+        }
+
+        if (nameChanged) {
+            nameGrams.add(ordinal, normalizedNames.get(ordinal));
+        }
+        if (typeChanged) {
+            typeGrams.add(ordinal, normalizedTypes.get(ordinal));
+        }
+        oracleText.add(ordinal, document.getOracleText());
+        if (document.getRarity() != null) {
+            byRarity.computeIfAbsent(CardDocument.normalize(document.getRarity()), r -> new BitSet()).set(ordinal);
+        }
+        if (document.getSetCode() != null) {
+            bySetCode.computeIfAbsent(CardDocument.normalize(document.getSetCode()), s -> new BitSet()).set(ordinal);
+        }
+        BitSet colorBits = byColorMask[document.getColorMask()];
+        if (colorBits == null) {
+            colorBits = byColorMask[document.getColorMask()] = new BitSet();
+        }
+        colorBits.set(ordinal);
+        if (document.getManaValue() != null) {
+            byManaValue.computeIfAbsent(document.getManaValue(), v -> new BitSet()).set(ordinal);
+        }
+        if (existing != null) {
+            compactTextIfNeeded();
+        }
+    }
+
+    private List<CardDocument> toDocuments(int[] ordinals) {
+        List<CardDocument> found = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            found.add(documents.get(ordinal));
+        }
+        return found;
+    }
+
+    private void delete(Long cardId) {
+        Integer ordinal = ordinalsById.remove(cardId);
+        if (ordinal == null) {
+            return;
+        }
+        sortedOrdinals.clear();
+        nameTrie.remove(ordinal);
+        unindex(ordinal, documents.get(ordinal));
+        // Los trigramas antiguos se quedan como entradas obsoletas hasta compactar
+        staleTextEntries++;
+        documents.set(ordinal, null);
+        normalizedNames.set(ordinal, null);
+        normalizedTypes.set(ordinal, null);
+        live.clear(ordinal);
+        compactTextIfNeeded();
+    }
+
+    private void unindex(int ordinal, CardDocument document) {
+        oracleText.remove(ordinal, document.getOracleText());
+        if (document.getRarity() != null) {
+            clearBit(byRarity, CardDocument.normalize(document.getRarity()), ordinal);
+        }
+        if (document.getSetCode() != null) {
+            clearBit(bySetCode, CardDocument.normalize(document.getSetCode()), ordinal);
+        }
+        BitSet colorBits = byColorMask[document.getColorMask()];
+        if (colorBits != null) {
+            colorBits.clear(ordinal);
+        }
+        if (document.getManaValue() != null) {
+            clearBit(byManaValue, document.getManaValue(), ordinal);
+        }
+    }
+
+    /**
+     * Reconstruye los índices de trigramas cuando las entradas obsoletas superan
+     * una cuarta parte del catálogo, para que no crezcan los falsos positivos.
+     */
+    private void compactTextIfNeeded() {
+        if (staleTextEntries < Math.max(1024, live.cardinality() / 4)) {
+            return;
+        }
+        nameGrams.clear();
+        typeGrams.clear();
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            nameGrams.add(ordinal, normalizedNames.get(ordinal));
+            typeGrams.add(ordinal, normalizedTypes.get(ordinal));
+        }
+        nameGrams.freeze();
+        typeGrams.freeze();
+        staleTextEntries = 0;
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> index, K key, int ordinal) {
+        BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Claves de ordenación de las cartas, compartidas por el índice en memoria y la
+ * consulta SQL paginada para que un cursor sirva en ambos caminos.
+ * Los valores nulos se sustituyen por centinelas que los colocan al final. El
+ * nombre se ordena por la columna sort_name (ver CardNameNormalizer), que
+ * ordena igual en Java y en MySQL y tiene índice.
+ */
+public final class CardSortKeys {
+
+    public static final Double NULL_MANA_VALUE = Double.MAX_VALUE;
+    public static final LocalDate NULL_RELEASE_DATE = LocalDate.of(9999, 12, 31);
+    public static final List<String> RARITY_ORDER = List.of("common", "uncommon", "rare", "mythic", "special",
+            "bonus");
+    public static final int UNKNOWN_RARITY_RANK = RARITY_ORDER.size();
+
+    private CardSortKeys() {
+    }
+
+    /**
+     * Clave de ordenación de un documento para el campo indicado.
+     */
+    static Comparable<?> keyOf(CardSortField field, CardDocument document) {
+        return switch (field) {
+            case NAME -> document.getSortName();
+            case MANA_VALUE -> document.getManaValue() != null ? document.getManaValue() : NULL_MANA_VALUE;
+            case RARITY -> rarityRank(document.getRarity());
+            case RELEASE_DATE -> document.getReleaseDate() != null ? document.getReleaseDate() : NULL_RELEASE_DATE;
+        };
+    }
+
+    /**
+     * Reconstruye una clave a partir de su representación textual en un cursor.
+     */
+    static Comparable<?> parse(CardSortField field, String value) {
+        return switch (field) {
+            case NAME -> value;
+            case MANA_VALUE -> Double.valueOf(value);
+            case RARITY -> Integer.valueOf(value);
+            case RELEASE_DATE -> LocalDate.parse(value);
+        };
+    }
+
+    /**
+     * Posición de una rareza en el orden de RARITY_ORDER.
+     */
+    public static int rarityRank(String rarity) {
+        int rank = rarity != null ? RARITY_ORDER.indexOf(CardDocument.normalize(rarity)) : -1;
+        return rank >= 0 ? rank : UNKNOWN_RARITY_RANK;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compare(Comparable<?> a, Comparable<?> b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+}
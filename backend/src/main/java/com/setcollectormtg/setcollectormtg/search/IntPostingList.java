@@ -0,0 +1,54 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import java.util.Arrays;
+
+/**
+ * Lista de ordinales de documentos ordenada y sin duplicados, almacenada en un
+ * array de enteros primitivos para evitar el coste de las colecciones con
+ * objetos.
+ * No es segura para hilos; el índice que la contiene sincroniza el acceso.
+ */
+final class IntPostingList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    /**
+     * Añade un ordinal manteniendo el orden. Los ordinales nuevos suelen ser
+     * mayores que todos los existentes, por lo que el caso habitual es un append.
+     */
+    void add(int value) {
+        if (size == 0 || values[size - 1] < value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+            return;
+        }
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1)));
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Trie de prefijos sobre los nombres normalizados de las cartas.
+ *
+ * Cada nodo guarda, ya ordenados, los ordinales de las mejores cartas de su
+ * subárbol (como máximo MAX_SUGGESTIONS y una sola impresión por nombre), así
+ * que una consulta solo recorre los caracteres del prefijo. Las cartas se
+ * insertan y se retiran de forma incremental: al retirar una solo se recalculan
+ * los nodos de su camino que la tenían entre sus mejores, a partir de los de
+ * sus hijos.
+ *
+ * El orden es por recencia: primero la impresión del set más reciente, después
+ * los nombres más cortos.
+ *
+ * También resuelve búsquedas aproximadas por distancia de Levenshtein: se
+ * recorre el trie calculando una fila de la matriz de distancias por nodo, como
+ * un autómata de Levenshtein, y se abandona cualquier rama cuya fila ya supera
+ * la distancia máxima. Así solo se visitan los prefijos que aún pueden casar.
+ */
+final class NameTrie {
+
+    static final int MAX_SUGGESTIONS = 20;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final Comparator<LocalDate> NEWEST_FIRST = Comparator
+            .nullsLast(Comparator.<LocalDate>reverseOrder());
+
+    private final List<CardDocument> documents;
+    private final List<String> normalizedNames;
+    private Node root = new Node();
+
+    /**
+     * @param documents       Documentos por ordinal del índice
+     * @param normalizedNames Nombres normalizados por ordinal del índice
+     */
+    NameTrie(List<CardDocument> documents, List<String> normalizedNames) {
+        this.documents = documents;
+        this.normalizedNames = normalizedNames;
+    }
+
+    void clear() {
+        root = new Node();
+    }
+
+    void add(int ordinal) {
+        String name = normalizedNames.get(ordinal);
+        if (name == null) {
+            return;
+        }
+        Node node = root;
+        offer(node, ordinal, name);
+        for (int i = 0; i < name.length(); i++) {
+            node = node.childOrCreate(name.charAt(i));
+            offer(node, ordinal, name);
+        }
+        node.printings = append(node.printings, ordinal);
+        if (node.exact < 0 || compare(ordinal, node.exact) < 0) {
+            node.exact = ordinal;
+        }
+    }
+
+    /**
+     * Retira una carta añadida antes. Debe llamarse mientras el documento y el
+     * nombre normalizado de ese ordinal siguen siendo los que tenía al añadirla.
+     */
+    void remove(int ordinal) {
+        String name = normalizedNames.get(ordinal);
+        if (name == null) {
+            return;
+        }
+        Node[] path = new Node[name.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < name.length(); i++) {
+            path[i + 1] = path[i].child(name.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node terminal = path[name.length()];
+        int[] printings = without(terminal.printings, ordinal);
+        if (printings == terminal.printings) {
+            return;
+        }
+        terminal.printings = printings;
+        terminal.exact = -1;
+        for (int printing : printings) {
+            if (terminal.exact < 0 || compare(printing, terminal.exact) < 0) {
+                terminal.exact = printing;
+            }
+        }
+
+        // Si un nodo no la tenía entre sus mejores, sus ancestros tampoco
+        for (int depth = name.length(); depth >= 0; depth--) {
+            Node node = path[depth];
+            if (indexOf(node.top, ordinal) < 0) {
+                break;
+            }
+            recomputeTop(node);
+            if (depth > 0 && node.top.length == 0) {
+                path[depth - 1].removeChild(name.charAt(depth - 1));
+            }
+        }
+    }
+
+    /**
+     * Ordinales de las mejores cartas cuyo nombre normalizado empieza por el
+     * prefijo, en orden de relevancia.
+     */
+    int[] suggest(String normalizedPrefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < normalizedPrefix.length() && node != null; i++) {
+            node = node.child(normalizedPrefix.charAt(i));
+        }
+        if (node == null) {
+            return NO_ORDINALS;
+        }
+        return Arrays.copyOf(node.top, Math.min(limit, node.top.length));
+    }
+
+    /**
+     * Ordinales de la mejor impresión de cada nombre a distancia de edición menor
+     * o igual que maxDistance, ordenados por distancia y después por relevancia.
+     */
+    int[] fuzzy(String normalizedQuery, int maxDistance, int limit) {
+        char[] query = normalizedQuery.toCharArray();
+        List<List<Integer>> byDistance = new ArrayList<>(maxDistance + 1);
+        for (int d = 0; d <= maxDistance; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        // Una fila por profundidad, reutilizada por todas las ramas
+        List<int[]> rows = new ArrayList<>();
+        int[] first = new int[query.length + 1];
+        for (int i = 0; i <= query.length; i++) {
+            first[i] = i;
+        }
+        rows.add(first);
+        collect(root, first, query, maxDistance, byDistance);
+        for (int i = 0; i < root.children.length; i++) {
+            walk(root.children[i], root.labels[i], 1, rows, query, maxDistance, byDistance);
+        }
+
+        int[] found = new int[limit];
+        int count = 0;
+        for (List<Integer> ordinals : byDistance) {
+            ordinals.sort(this::compare);
+            for (int i = 0; i < ordinals.size() && count < limit; i++) {
+                found[count++] = ordinals.get(i);
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private void walk(Node node, char label, int depth, List<int[]> rows, char[] query, int maxDistance,
+            List<List<Integer>> byDistance) {
+        if (rows.size() == depth) {
+            rows.add(new int[query.length + 1]);
+        }
+        int[] previous = rows.get(depth - 1);
+        int[] row = rows.get(depth);
+        row[0] = depth;
+        int rowMin = depth;
+        for (int i = 1; i <= query.length; i++) {
+            int cost = query[i - 1] == label ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+        collect(node, row, query, maxDistance, byDistance);
+        // Ningún nombre de la rama puede bajar del mínimo de la fila
+        if (rowMin > maxDistance) {
+            return;
+        }
+        for (int i = 0; i < node.children.length; i++) {
+            walk(node.children[i], node.labels[i], depth + 1, rows, query, maxDistance, byDistance);
+        }
+    }
+
+    private static void collect(Node node, int[] row, char[] query, int maxDistance,
+            List<List<Integer>> byDistance) {
+        int distance = row[query.length];
+        if (node.exact >= 0 && distance <= maxDistance) {
+            byDistance.get(distance).add(node.exact);
+        }
+    }
+
+    private void offer(Node node, int ordinal, String name) {
+        int[] top = node.top;
+        for (int i = 0; i < top.length; i++) {
+            if (name.equals(normalizedNames.get(top[i]))) {
+                if (compare(ordinal, top[i]) >= 0) {
+                    return;
+                }
+                // Otra impresión del mismo nombre: se sustituye por la más relevante
+                int[] without = new int[top.length - 1];
+                System.arraycopy(top, 0, without, 0, i);
+                System.arraycopy(top, i + 1, without, i, top.length - i - 1);
+                top = without;
+                break;
+            }
+        }
+        if (top.length == MAX_SUGGESTIONS && compare(ordinal, top[top.length - 1]) >= 0) {
+            return;
+        }
+        int position = 0;
+        while (position < top.length && compare(top[position], ordinal) < 0) {
+            position++;
+        }
+        int[] updated = new int[Math.min(top.length + 1, MAX_SUGGESTIONS)];
+        System.arraycopy(top, 0, updated, 0, position);
+        updated[position] = ordinal;
+        System.arraycopy(top, position, updated, position + 1, updated.length - position - 1);
+        node.top = updated;
+    }
+
+    /**
+     * Recalcula las mejores cartas de un nodo a partir de la impresión que
+     * termina en él y de las mejores de cada hijo, que tienen nombres distintos.
+     */
+    private void recomputeTop(Node node) {
+        int total = node.exact >= 0 ? 1 : 0;
+        for (Node child : node.children) {
+            total += child.top.length;
+        }
+        Integer[] candidates = new Integer[total];
+        int n = 0;
+        if (node.exact >= 0) {
+            candidates[n++] = node.exact;
+        }
+        for (Node child : node.children) {
+            for (int ordinal : child.top) {
+                candidates[n++] = ordinal;
+            }
+        }
+        Arrays.sort(candidates, this::compare);
+        int[] top = new int[Math.min(total, MAX_SUGGESTIONS)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = candidates[i];
+        }
+        node.top = top;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] appended = Arrays.copyOf(values, values.length + 1);
+        appended[values.length] = value;
+        return appended;
+    }
+
+    /**
+     * Copia del array sin el valor, o el mismo array si no lo contiene.
+     */
+    private static int[] without(int[] values, int value) {
+        int index = indexOf(values, value);
+        if (index < 0) {
+            return values;
+        }
+        int[] remaining = new int[values.length - 1];
+        System.arraycopy(values, 0, remaining, 0, index);
+        System.arraycopy(values, index + 1, remaining, index, values.length - index - 1);
+        return remaining;
+    }
+
+    private int compare(int a, int b) {
+        CardDocument first = documents.get(a);
+        CardDocument second = documents.get(b);
+        int byDate = NEWEST_FIRST.compare(first.getReleaseDate(), second.getReleaseDate());
+        if (byDate != 0) {
+            return byDate;
+        }
+        String firstName = normalizedNames.get(a);
+        String secondName = normalizedNames.get(b);
+        int byLength = Integer.compare(firstName.length(), secondName.length());
+        if (byLength != 0) {
+            return byLength;
+        }
+        int byName = firstName.compareTo(secondName);
+        return byName != 0 ? byName : Long.compare(second.getCardId(), first.getCardId());
+    }
+
+    /**
+     * Nodo con los hijos en arrays ordenados por carácter, más compactos que un
+     * mapa para los pocos hijos que suele tener cada nodo.
+     */
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int[] top = NO_ORDINALS;
+        // Impresiones de la carta cuyo nombre termina en este nodo y la mejor de ellas, o -1
+        private int[] printings = NO_ORDINALS;
+        private int exact = -1;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int position = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newLabels[position] = label;
+            Node child = new Node();
+            newChildren[position] = child;
+            System.arraycopy(labels, position, newLabels, position + 1, labels.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
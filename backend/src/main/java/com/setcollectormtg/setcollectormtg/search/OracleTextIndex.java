@@ -0,0 +1,231 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice invertido de palabras sobre el texto de reglas (oracle text) con
+ * puntuación BM25.
+ *
+ * Cada término guarda los ordinales de las cartas que lo contienen, ordenados,
+ * junto con el número de apariciones. Al contrario que el índice de trigramas,
+ * los cambios se aplican retirando las entradas del texto anterior, porque la
+ * frecuencia de cada término entra en la puntuación.
+ * No es seguro para hilos; el índice que lo contiene sincroniza el acceso.
+ */
+final class OracleTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, TermPostings> postings = new HashMap<>();
+    private int[] lengths = new int[1024];
+    private int documentCount;
+    private long totalLength;
+
+    /**
+     * Divide un texto en términos: secuencias de letras o dígitos en minúsculas.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    void add(int ordinal, String text) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Integer> term : frequencies(terms).entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new TermPostings()).add(ordinal, term.getValue());
+        }
+        if (ordinal >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(ordinal + 1, lengths.length * 2));
+        }
+        lengths[ordinal] = terms.size();
+        documentCount++;
+        totalLength += terms.size();
+    }
+
+    /**
+     * Retira las entradas de un texto indexado antes con add.
+     */
+    void remove(int ordinal, String text) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (String term : frequencies(terms).keySet()) {
+            TermPostings termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(ordinal);
+                if (termPostings.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        lengths[ordinal] = 0;
+        documentCount--;
+        totalLength -= terms.size();
+    }
+
+    void clear() {
+        postings.clear();
+        Arrays.fill(lengths, 0);
+        documentCount = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Cartas que contienen todos los términos. Se recorre la lista más corta y
+     * en las demás se avanza con búsqueda exponencial desde la última posición,
+     * ya que todas están ordenadas.
+     */
+    BitSet matchingAll(List<String> terms) {
+        BitSet result = new BitSet();
+        List<TermPostings> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            TermPostings termPostings = postings.get(term);
+            if (termPostings == null) {
+                return result;
+            }
+            if (!lists.contains(termPostings)) {
+                lists.add(termPostings);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        TermPostings shortest = lists.get(0);
+        int[] positions = new int[lists.size()];
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            int ordinal = shortest.ordinals[i];
+            for (int j = 1; j < lists.size(); j++) {
+                TermPostings other = lists.get(j);
+                positions[j] = other.seek(positions[j], ordinal);
+                if (positions[j] == other.size) {
+                    break candidates;
+                }
+                if (other.ordinals[positions[j]] != ordinal) {
+                    continue candidates;
+                }
+            }
+            result.set(ordinal);
+        }
+        return result;
+    }
+
+    /**
+     * Puntuación BM25 de cada carta del conjunto para la consulta.
+     *
+     * @param terms    Términos de la consulta
+     * @param ordinals Cartas a puntuar, en orden creciente
+     * @return Puntuaciones en el mismo orden que ordinals
+     */
+    double[] scores(List<String> terms, int[] ordinals) {
+        double[] scores = new double[ordinals.length];
+        if (documentCount == 0) {
+            return scores;
+        }
+        double averageLength = (double) totalLength / documentCount;
+        for (Map.Entry<String, Integer> term : frequencies(terms).entrySet()) {
+            TermPostings termPostings = postings.get(term.getKey());
+            if (termPostings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - termPostings.size + 0.5) / (termPostings.size + 0.5));
+            // Ambas listas están ordenadas: se recorren a la vez
+            int p = 0;
+            for (int i = 0; i < ordinals.length; i++) {
+                while (p < termPostings.size && termPostings.ordinals[p] < ordinals[i]) {
+                    p++;
+                }
+                if (p < termPostings.size && termPostings.ordinals[p] == ordinals[i]) {
+                    int tf = termPostings.frequencies[p];
+                    double norm = K1 * (1 - B + B * lengths[ordinals[i]] / averageLength);
+                    scores[i] += term.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static Map<String, Integer> frequencies(List<String> terms) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    /**
+     * Ordinales ordenados de las cartas que contienen un término, con su número
+     * de apariciones en arrays paralelos.
+     */
+    private static final class TermPostings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int ordinal, int frequency) {
+            int pos = size == 0 || ordinals[size - 1] < ordinal ? -size - 1
+                    : Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (pos >= 0) {
+                frequencies[pos] = frequency;
+                return;
+            }
+            int insertAt = -pos - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int pos = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, pos + 1, ordinals, pos, size - pos - 1);
+            System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos - 1);
+            size--;
+        }
+
+        /**
+         * Primera posición desde from cuyo ordinal es mayor o igual que target, o
+         * size si no hay ninguna.
+         */
+        int seek(int from, int target) {
+            int bound = 1;
+            while (from + bound < size && ordinals[from + bound] < target) {
+                bound <<= 1;
+            }
+            int pos = Arrays.binarySearch(ordinals, from + (bound >> 1), Math.min(from + bound + 1, size), target);
+            return pos >= 0 ? pos : -pos - 1;
+        }
+    }
+}
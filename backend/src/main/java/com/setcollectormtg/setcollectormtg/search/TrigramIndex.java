@@ -0,0 +1,277 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import java.util.Arrays;
+
+/**
+ * Índice de trigramas para búsquedas por subcadena (equivalentes a
+ * LIKE '%texto%').
+ *
+ * Cada trigrama del texto normalizado se empaqueta en un long y se localiza en
+ * una tabla hash de direccionamiento abierto, sin objetos por clave. Las listas
+ * de ordinales se guardan comprimidas (deltas codificados como varint en un
+ * byte[]) y las altas posteriores a la última compactación van a una cola
+ * IntPostingList sin comprimir.
+ *
+ * Las bajas no se eliminan de las listas: los candidatos siempre se verifican
+ * contra el valor actual, así que una entrada obsoleta solo produce un falso
+ * positivo que se descarta. El índice propietario llama a {@link #clear()} y
+ * reindexa cuando se acumulan demasiadas entradas obsoletas.
+ *
+ * No es seguro para hilos; el índice que lo contiene sincroniza el acceso.
+ */
+final class TrigramIndex {
+
+    static final int GRAM = 3;
+    // Con pocos candidatos es más barato verificarlos que seguir intersectando
+    private static final int VERIFY_THRESHOLD = 32;
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    private byte[][] frozen = new byte[16][];
+    private int[] frozenCounts = new int[16];
+    private IntPostingList[] tails = new IntPostingList[16];
+
+    TrigramIndex() {
+        clear();
+    }
+
+    void clear() {
+        keys = new long[1024];
+        slots = new int[1024];
+        mask = keys.length - 1;
+        size = 0;
+        Arrays.fill(frozen, null);
+        Arrays.fill(frozenCounts, 0);
+        Arrays.fill(tails, null);
+    }
+
+    /**
+     * Registra todos los trigramas distintos de un valor normalizado.
+     */
+    void add(int ordinal, String value) {
+        if (value == null || value.length() < GRAM) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            int slot = slotFor(pack(value, i), true);
+            IntPostingList tail = tails[slot];
+            if (tail == null) {
+                tail = tails[slot] = new IntPostingList();
+            }
+            tail.add(ordinal);
+        }
+    }
+
+    /**
+     * Comprime las colas pendientes en las listas definitivas. Se llama al
+     * terminar una reconstrucción completa y cada lote de altas.
+     */
+    void freeze() {
+        for (int slot = 0; slot < size; slot++) {
+            IntPostingList tail = tails[slot];
+            if (tail != null && !tail.isEmpty()) {
+                int[] merged = postings(slot);
+                frozen[slot] = encode(merged);
+                frozenCounts[slot] = merged.length;
+                tails[slot] = null;
+            }
+        }
+    }
+
+    /**
+     * Indica si hay altas sin comprimir desde la última llamada a freeze().
+     */
+    boolean hasPendingPostings() {
+        for (int slot = 0; slot < size; slot++) {
+            if (tails[slot] != null && !tails[slot].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve los ordinales ordenados que contienen todos los trigramas de la
+     * consulta, o null si la consulta es demasiado corta para tener trigramas.
+     *
+     * @param query Texto normalizado a buscar
+     * @return Candidatos a verificar o null si no se puede acotar
+     */
+    int[] candidates(String query) {
+        if (query == null || query.length() < GRAM) {
+            return null;
+        }
+        int gramCount = query.length() - GRAM + 1;
+        int[] querySlots = new int[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            int slot = slotFor(pack(query, i), false);
+            if (slot < 0) {
+                return new int[0];
+            }
+            querySlots[i] = slot;
+        }
+        Arrays.sort(querySlots);
+        int distinct = 0;
+        for (int i = 0; i < gramCount; i++) {
+            if (i == 0 || querySlots[i] != querySlots[i - 1]) {
+                querySlots[distinct++] = querySlots[i];
+            }
+        }
+
+        // Se intersecta empezando por las listas más cortas
+        long[] bySize = new long[distinct];
+        for (int i = 0; i < distinct; i++) {
+            bySize[i] = ((long) approximateSize(querySlots[i]) << 32) | querySlots[i];
+        }
+        Arrays.sort(bySize);
+
+        int[] result = postings((int) bySize[0]);
+        for (int i = 1; i < bySize.length && result.length > VERIFY_THRESHOLD; i++) {
+            result = intersect(result, postings((int) bySize[i]));
+        }
+        return result;
+    }
+
+    private int approximateSize(int slot) {
+        IntPostingList tail = tails[slot];
+        return frozenCounts[slot] + (tail != null ? tail.size() : 0);
+    }
+
+    /**
+     * Une la lista comprimida y la cola de un trigrama en un array ordenado.
+     */
+    private int[] postings(int slot) {
+        int[] decoded = decode(frozen[slot], frozenCounts[slot]);
+        IntPostingList tail = tails[slot];
+        if (tail == null || tail.isEmpty()) {
+            return decoded;
+        }
+        int[] pending = tail.toArray();
+        int[] merged = new int[decoded.length + pending.length];
+        int i = 0, j = 0, n = 0;
+        while (i < decoded.length || j < pending.length) {
+            int next;
+            if (j >= pending.length || (i < decoded.length && decoded[i] < pending[j])) {
+                next = decoded[i++];
+            } else if (i >= decoded.length || pending[j] < decoded[i]) {
+                next = pending[j++];
+            } else {
+                next = decoded[i++];
+                j++;
+            }
+            merged[n++] = next;
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static byte[] encode(int[] sorted) {
+        byte[] buffer = new byte[sorted.length * 5];
+        int pos = 0;
+        int previous = 0;
+        for (int value : sorted) {
+            int delta = value - previous;
+            previous = value;
+            while ((delta & ~0x7F) != 0) {
+                buffer[pos++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[pos++] = (byte) delta;
+        }
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    private static int[] decode(byte[] encoded, int count) {
+        int[] values = new int[count];
+        if (encoded == null) {
+            return values;
+        }
+        int pos = 0;
+        int previous = 0;
+        for (int n = 0; n < count; n++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += delta;
+            values[n] = previous;
+        }
+        return values;
+    }
+
+    private static long pack(String value, int offset) {
+        // El bit alto distingue cualquier trigrama de la marca de hueco vacío
+        return (1L << 63)
+                | ((long) value.charAt(offset) << 32)
+                | ((long) value.charAt(offset + 1) << 16)
+                | value.charAt(offset + 2);
+    }
+
+    private int slotFor(long key, boolean create) {
+        int h = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[h] != EMPTY) {
+            if (keys[h] == key) {
+                return slots[h];
+            }
+            h = (h + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        int slot = size++;
+        keys[h] = key;
+        slots[h] = slot;
+        if (slot >= tails.length) {
+            int capacity = tails.length * 2;
+            frozen = Arrays.copyOf(frozen, capacity);
+            frozenCounts = Arrays.copyOf(frozenCounts, capacity);
+            tails = Arrays.copyOf(tails, capacity);
+        }
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int h = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+                while (keys[h] != EMPTY) {
+                    h = (h + 1) & mask;
+                }
+                keys[h] = oldKeys[i];
+                slots[h] = oldSlots[i];
+            }
+        }
+    }
+}
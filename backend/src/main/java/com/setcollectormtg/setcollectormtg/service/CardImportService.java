@@ -1,122 +1,487 @@
 package com.setcollectormtg.setcollectormtg.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.setcollectormtg.setcollectormtg.cache.CatalogChangedEvent;
+import com.setcollectormtg.setcollectormtg.dto.ImportRejectionDto;
+import com.setcollectormtg.setcollectormtg.dto.ImportResultDto;
+import com.setcollectormtg.setcollectormtg.enums.ImportFileFormat;
 import com.setcollectormtg.setcollectormtg.model.Card;
 import com.setcollectormtg.setcollectormtg.model.SetMtg;
-import com.setcollectormtg.setcollectormtg.repository.CardRepository;
+import com.setcollectormtg.setcollectormtg.repository.CardBatchRepository;
+import com.setcollectormtg.setcollectormtg.repository.CardBatchRepository.CardFingerprint;
+import com.setcollectormtg.setcollectormtg.repository.CardBatchRepository.CardKey;
 import com.setcollectormtg.setcollectormtg.repository.SetMtgRepository;
+import com.setcollectormtg.setcollectormtg.search.CardSearchIndex;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CardImportService {
 
-    private final CardRepository cardRepository;
+    private final CardBatchRepository cardBatchRepository;
     private final SetMtgRepository setMtgRepository;
     private final ScryfallService scryfallService;
+    private final CardSearchIndex cardSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    // Cartas rechazadas que se detallan en el resultado; el resto solo se cuentan
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+    private static final int MAPPING_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    // Sets leídos y aún no escritos; limita la memoria de la importación de volcados
+    private static final int MAX_SETS_IN_FLIGHT = 2 * MAPPING_PARALLELISM;
+
+    private final ForkJoinPool mappingPool = new ForkJoinPool(MAPPING_PARALLELISM);
 
     /**
      * Importa un set y todas sus cartas desde un archivo JSON exportado (por
-     * ejemplo, de Scryfall).
-     * Procesa primero la información del set y luego importa todas las cartas
-     * asociadas.
+     * ejemplo, de Scryfall), que puede estar comprimido (ver ImportFileFormat).
+     * El archivo se lee en streaming en dos pasadas: la primera obtiene la
+     * información del set saltándose las cartas y la segunda recorre data.cards
+     * carta a carta, guardándolas en bloques de IMPORT_CHUNK_SIZE. Nunca se
+     * carga el documento completo, así que la memoria usada no depende del
+     * tamaño del archivo.
+     *
+     * La importación es idempotente: si el set ya existe (mismo código) se
+     * actualiza, y sus cartas se comparan por scryfallId y cara (las caras de
+     * una carta de varias caras comparten scryfallId) con la huella de su
+     * contenido, que se carga en una sola consulta. Las cartas guardadas sin
+     * scryfallId (las de importaciones anteriores a las huellas) se emparejan
+     * por nombre dentro del set y se actualizan con su scryfallId y su huella.
+     * Solo se insertan las cartas nuevas y se actualizan las que han cambiado;
+     * las que no aparecen en el archivo se conservan, porque pueden estar en
+     * colecciones de usuarios.
      * Lanza excepción si ocurre un error de lectura o formato.
      *
      * @param jsonFilePath Ruta al archivo JSON del set
+     * @return Recuento de cartas nuevas, actualizadas, sin cambios y rechazadas
      * @throws IOException Si ocurre un error de lectura del archivo
      */
-    @Transactional
-    public void importSetFromJson(String jsonFilePath) throws IOException {
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
+    public ImportResultDto importSetFromJson(String jsonFilePath) throws IOException {
+        return importSetFromJson(jsonFilePath, new ImportProgress());
+    }
+
+    /**
+     * Igual que importSetFromJson(jsonFilePath), informando del avance.
+     *
+     * Cada bloque de cartas se confirma en su propia transacción, de modo que
+     * una importación larga no retiene una conexión del pool durante toda su
+     * duración. Si falla a mitad, los bloques confirmados se conservan y, al ser
+     * idempotente, basta con volver a importar el archivo.
+     *
+     * Las cartas que no se pueden mapear, o que la base de datos rechaza por
+     * una restricción, no detienen la importación: se descartan y se informa
+     * de ellas en el resultado con su JSON Pointer y el motivo. Si un bloque
+     * falla por una restricción, se reintenta carta a carta para guardar el
+     * resto.
+     *
+     * @param jsonFilePath Ruta al archivo JSON del set
+     * @param progress     Contadores de avance que se actualizan durante la importación
+     * @return Recuento de cartas nuevas, actualizadas, sin cambios y rechazadas
+     * @throws IOException Si ocurre un error de lectura del archivo
+     */
+    public ImportResultDto importSetFromJson(String jsonFilePath, ImportProgress progress) throws IOException {
+        File jsonFile = new File(jsonFilePath);
 
         // Primero procesamos la información del set
-        SetMtg setMtg = processSetInfo(rootNode);
-        setMtgRepository.save(setMtg);
+        SetWriter writer = new SetWriter(processSetInfo(readSetInfo(jsonFile, progress)), progress);
 
-        // Luego procesamos las cartas
-        processCards(rootNode.path("data").path("cards"), setMtg);
+        // Luego recorremos las cartas en streaming
+        try (JsonParser parser = openParser(jsonFile)) {
+            if (moveToField(parser, "data") && parser.currentToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "cards") && parser.currentToken() == JsonToken.START_ARRAY) {
+                for (int index = 0; parser.nextToken() == JsonToken.START_OBJECT; index++) {
+                    JsonNode cardNode = objectMapper.readTree(parser);
+                    progress.addParsed(1);
+                    String pointer = "/data/cards/" + index;
+                    Card card = mapCard(cardNode, writer.setMtg, pointer, writer::reject);
+                    if (card != null) {
+                        writer.add(new ImportedCard(card, pointer));
+                    }
+                }
+            }
+        }
+        return writer.finish();
     }
 
     /**
-     * Procesa la información general del set a partir del nodo raíz del JSON.
+     * Importa todos los sets de un volcado tipo AllPrintings de MTGJSON: un
+     * objeto data con un set completo (con sus cartas) por código.
      *
-     * @param rootNode Nodo raíz del JSON
-     * @return Entidad SetMtg creada a partir del JSON
+     * El archivo se recorre en streaming y cada set se copia como bytes JSON a
+     * una tarea del pool de mapeo, que lo analiza y lo convierte en cartas en
+     * paralelo. Los resultados se escriben en el orden del archivo desde este
+     * hilo, que es el único escritor. Como mucho hay MAX_SETS_IN_FLIGHT sets
+     * leídos sin escribir: al llegar al límite la lectura espera al escritor,
+     * así que la memoria no depende del tamaño del volcado. El avance se mide en
+     * bytes del archivo leídos, para no recorrerlo una vez más solo para contar
+     * sus cartas.
+     *
+     * Cada set se escribe igual que en importSetFromJson: es idempotente y se
+     * confirma por bloques.
+     *
+     * @param jsonFilePath Ruta al archivo AllPrintings
+     * @param progress     Contadores de avance que se actualizan durante la importación
+     * @return Recuento total de sets y de cartas nuevas, actualizadas, sin cambios y rechazadas
+     * @throws IOException Si ocurre un error de lectura del archivo o al mapear un set
+     */
+    public ImportResultDto importAllPrintings(String jsonFilePath, ImportProgress progress) throws IOException {
+        File jsonFile = new File(jsonFilePath);
+        long start = System.currentTimeMillis();
+        progress.setBytesTotal(jsonFile.length());
+
+        ImportResultDto total = new ImportResultDto();
+        Deque<Future<MappedSet>> inFlight = new ArrayDeque<>();
+        try (JsonParser parser = openParser(jsonFile, progress)) {
+            if (!moveToField(parser, "data") || parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IOException("El archivo no contiene el objeto data");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String setCode = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                byte[] setJson = copyStructure(parser);
+                inFlight.add(mappingPool.submit(() -> mapSet(setCode, setJson, progress)));
+                if (inFlight.size() >= MAX_SETS_IN_FLIGHT) {
+                    writeMappedSet(inFlight.poll(), progress, total);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeMappedSet(inFlight.poll(), progress, total);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        log.info("Volcado importado: {} sets, {} cartas nuevas, {} actualizadas, {} sin cambios y {} rechazadas"
+                + " en {} ms", total.getSets(), total.getInserted(), total.getUpdated(), total.getUnchanged(),
+                total.getRejected(), System.currentTimeMillis() - start);
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mappingPool.shutdownNow();
+    }
+
+    /**
+     * Copia el valor en el que está situado el parser como bytes JSON, dejando
+     * el parser al final de ese valor.
      */
-    private SetMtg processSetInfo(JsonNode rootNode) {
-        JsonNode setInfo = rootNode.path("data");
+    private byte[] copyStructure(JsonParser parser) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return buffer.toByteArray();
+    }
 
+    /**
+     * Analiza un set del volcado y mapea sus cartas. Se ejecuta en el pool de
+     * mapeo, así que no toca la base de datos.
+     */
+    private MappedSet mapSet(String setCode, byte[] setJson, ImportProgress progress) throws IOException {
+        JsonNode setNode = objectMapper.readTree(setJson);
+        SetMtg setMtg = processSetInfo(setNode);
+        if (setMtg.getSetCode().isEmpty()) {
+            setMtg.setSetCode(setCode);
+        }
+        String cardsPointer = "/data/" + setCode.replace("~", "~0").replace("/", "~1") + "/cards/";
+        // Si cards no es un array el set se guarda sin cartas
+        JsonNode cardNodes = setNode.path("cards").isArray() ? setNode.path("cards") : objectMapper.createArrayNode();
+        List<ImportedCard> cards = new ArrayList<>(cardNodes.size());
+        List<ImportRejectionDto> rejections = new ArrayList<>();
+        int index = 0;
+        for (JsonNode cardNode : cardNodes) {
+            progress.addParsed(1);
+            String pointer = cardsPointer + index++;
+            Card card = mapCard(cardNode, setMtg, pointer, rejections::add);
+            if (card != null) {
+                cards.add(new ImportedCard(card, pointer));
+            }
+        }
+        return new MappedSet(setMtg, cards, rejections);
+    }
+
+    /**
+     * Espera al siguiente set mapeado, en orden de lectura, y lo escribe.
+     */
+    private void writeMappedSet(Future<MappedSet> future, ImportProgress progress, ImportResultDto total)
+            throws IOException {
+        MappedSet mapped;
+        try {
+            mapped = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error mapeando un set del volcado: " + e.getCause().getMessage(), e.getCause());
+        }
+        SetWriter writer = new SetWriter(mapped.setMtg(), progress);
+        mapped.rejections().forEach(writer::reject);
+        mapped.cards().forEach(writer::add);
+        ImportResultDto result = writer.finish();
+        total.setSets(total.getSets() + 1);
+        total.setInserted(total.getInserted() + result.getInserted());
+        total.setUpdated(total.getUpdated() + result.getUpdated());
+        total.setUnchanged(total.getUnchanged() + result.getUnchanged());
+        total.setAccepted(total.getAccepted() + result.getAccepted());
+        total.setRejected(total.getRejected() + result.getRejected());
+        result.getRejections().stream()
+                .limit(MAX_REPORTED_REJECTIONS - total.getRejections().size())
+                .forEach(total.getRejections()::add);
+    }
+
+    /**
+     * Crea el set o actualiza el existente con el mismo código.
+     */
+    private SetMtg upsertSet(SetMtg imported) {
+        return transactionTemplate.execute(status -> setMtgRepository.findBySetCode(imported.getSetCode())
+                .map(set -> updateSetInfo(set, imported))
+                .orElseGet(() -> setMtgRepository.save(imported)));
+    }
+
+    /**
+     * Copia la información importada sobre un set ya guardado. Si cambia la
+     * fecha de lanzamiento se actualizan también sus cartas en el índice de
+     * búsqueda.
+     */
+    private SetMtg updateSetInfo(SetMtg setMtg, SetMtg imported) {
+        setMtg.setName(imported.getName());
+        if (imported.getReleaseDate() != null && !imported.getReleaseDate().equals(setMtg.getReleaseDate())) {
+            setMtg.setReleaseDate(imported.getReleaseDate());
+            cardSearchIndex.refreshSet(setMtg.getSetId(), setMtg.getSetCode(), setMtg.getReleaseDate());
+        }
+        return setMtg;
+    }
+
+    /**
+     * Lee los campos simples del objeto data, saltándose los arrays y objetos
+     * anidados sin materializarlos. De paso cuenta los elementos de data.cards
+     * para poder estimar el tiempo restante.
+     *
+     * @param jsonFile Archivo JSON del set
+     * @param progress Contadores de avance donde se guarda el total de cartas
+     * @return Nodo con los campos simples de data
+     * @throws IOException Si ocurre un error de lectura del archivo
+     */
+    private ObjectNode readSetInfo(File jsonFile, ImportProgress progress) throws IOException {
+        ObjectNode setInfo = objectMapper.createObjectNode();
+        try (JsonParser parser = openParser(jsonFile)) {
+            if (!moveToField(parser, "data") || parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IOException("El archivo no contiene el objeto data");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("cards".equals(field) && value == JsonToken.START_ARRAY) {
+                    int cards = 0;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                        cards++;
+                    }
+                    progress.setCardsTotal(cards);
+                } else if (value.isStructStart()) {
+                    parser.skipChildren();
+                } else {
+                    setInfo.set(field, objectMapper.readTree(parser));
+                }
+            }
+        }
+        return setInfo;
+    }
+
+    /**
+     * Procesa la información general del set a partir de los campos del objeto
+     * del set. Acepta los nombres de campo de Scryfall (released_at,
+     * card_count) y los de MTGJSON (releaseDate, totalSetSize).
+     *
+     * @param setInfo Campos del objeto del set
+     * @return Entidad SetMtg creada a partir del JSON
+     */
+    private SetMtg processSetInfo(JsonNode setInfo) {
         SetMtg setMtg = new SetMtg();
         setMtg.setSetCode(setInfo.path("code").asText());
         setMtg.setName(setInfo.path("name").asText());
 
-        if (setInfo.has("released_at")) {
-            setMtg.setReleaseDate(LocalDate.parse(setInfo.path("released_at").asText(), DATE_FORMATTER));
+        JsonNode releaseDate = setInfo.has("released_at") ? setInfo.path("released_at") : setInfo.path("releaseDate");
+        if (releaseDate.isTextual()) {
+            setMtg.setReleaseDate(LocalDate.parse(releaseDate.asText(), DATE_FORMATTER));
         }
 
-        if (setInfo.has("card_count")) {
-            setMtg.setTotalCards(setInfo.path("card_count").asInt());
+        JsonNode totalCards = setInfo.has("card_count") ? setInfo.path("card_count") : setInfo.path("totalSetSize");
+        if (totalCards.isNumber()) {
+            setMtg.setTotalCards(totalCards.asInt());
         }
 
         return setMtg;
     }
 
     /**
-     * Procesa y guarda todas las cartas de un set a partir del nodo JSON
-     * correspondiente.
-     * Actualiza el total de cartas en el set.
-     *
-     * @param cardsNode Nodo JSON con las cartas
-     * @param setMtg    Set al que pertenecen las cartas
+     * Huella de los campos importados de una carta: los primeros 64 bits de su
+     * SHA-256. El scryfallId y el set no entran porque son la clave de la
+     * comparación.
      */
-    private void processCards(JsonNode cardsNode, SetMtg setMtg) {
-        List<Card> cards = new ArrayList<>();
+    private static long contentHash(Card card) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (Object field : new Object[] { card.getName(), card.getRarity(), card.getOracleText(),
+                card.getManaValue(), card.getManaCost(), card.getCardType(), card.getImageUrl() }) {
+            // Separador y marca de nulo para que ("ab", "c") y ("a", "bc") no coincidan
+            digest.update(field == null ? new byte[] { 1 } : String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
 
-        cardsNode.forEach(cardNode -> {
-            try {
-                Card card = mapJsonToCard(cardNode, setMtg);
-                if (card != null) {
-                    cards.add(card);
+    /**
+     * Abre un parser sobre el archivo, descomprimiéndolo en streaming según su
+     * extensión (.json, .json.gz, .json.xz o .zip).
+     */
+    private JsonParser openParser(File jsonFile) throws IOException {
+        return objectMapper.getFactory()
+                .createParser(ImportFileFormat.fromFileName(jsonFile.getName()).open(jsonFile.toPath()));
+    }
+
+    /**
+     * Igual que openParser(jsonFile), sumando al avance los bytes del archivo
+     * que se leen, antes de descomprimirlos.
+     */
+    private JsonParser openParser(File jsonFile, ImportProgress progress) throws IOException {
+        InputStream counted = new FilterInputStream(Files.newInputStream(jsonFile.toPath())) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    progress.addBytesRead(1);
                 }
-            } catch (Exception e) {
-                log.error("Error procesando carta: {}", cardNode.path("name").asText(), e);
+                return b;
             }
-        });
 
-        // Guardamos todas las cartas
-        cardRepository.saveAll(cards);
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    progress.addBytesRead(n);
+                }
+                return n;
+            }
 
-        // Actualizamos el total de cartas en el set con el conteo real
-        setMtg.setTotalCards(cards.size());
-        setMtgRepository.save(setMtg);
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                progress.addBytesRead(skipped);
+                return skipped;
+            }
+        };
+        return objectMapper.getFactory()
+                .createParser(ImportFileFormat.fromFileName(jsonFile.getName()).open(counted));
+    }
+
+    /**
+     * Avanza el parser, situado antes o al principio de un objeto, hasta el
+     * valor del campo indicado de ese objeto, saltándose el resto de valores.
+     *
+     * @param parser Parser situado antes del objeto o en su START_OBJECT
+     * @param name   Nombre del campo
+     * @return true si el campo existe; el parser queda en el primer token de
+     *         su valor
+     * @throws IOException Si ocurre un error de lectura
+     */
+    private static boolean moveToField(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() == null) {
+            parser.nextToken();
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
 
-        log.info("Importadas {} cartas para el set {}", cards.size(), setMtg.getSetCode());
+    /**
+     * Mapea una carta sin propagar los errores, para que una carta mal formada
+     * no detenga la importación: si no es válida devuelve null y pasa el
+     * motivo a rejections.
+     */
+    private Card mapCard(JsonNode cardNode, SetMtg setMtg, String pointer,
+            Consumer<ImportRejectionDto> rejections) {
+        try {
+            Card card = mapJsonToCard(cardNode, setMtg);
+            if (card == null) {
+                rejections.accept(new ImportRejectionDto(pointer, null, "Card has no name"));
+            }
+            return card;
+        } catch (Exception e) {
+            log.error("Error procesando carta: {}", cardNode.path("name").asText(), e);
+            rejections.accept(new ImportRejectionDto(pointer, cardNode.path("name").asText(null),
+                    e.getMessage() != null ? e.getMessage() : e.toString()));
+            return null;
+        }
     }
 
     /**
      * Mapea un nodo JSON de carta a una entidad Card, asociándola al set
      * correspondiente.
-     * Si la carta no tiene nombre, retorna null.
+     * Si la carta no tiene nombre, retorna null. Es visible en el paquete
+     * para medir la fase de mapeo en CardImportBenchmark.
      *
      * @param cardNode Nodo JSON de la carta
      * @param setMtg   Set al que pertenece la carta
      * @return Entidad Card o null si no es válida
      */
-    private Card mapJsonToCard(JsonNode cardNode, SetMtg setMtg) {
+    Card mapJsonToCard(JsonNode cardNode, SetMtg setMtg) {
         if (!cardNode.has("name")) {
             log.warn("Carta sin nombre encontrada");
             return null;
@@ -134,9 +499,234 @@ public class CardImportService {
         // Procesar imagen desde Scryfall
         if (cardNode.has("identifiers") && cardNode.path("identifiers").has("scryfallId")) {
             String scryfallId = cardNode.path("identifiers").path("scryfallId").asText();
+            card.setScryfallId(scryfallId);
             card.setImageUrl(scryfallService.generateImageUrl(scryfallId));
         }
+        // Las caras de una carta de varias caras son entradas distintas con el mismo scryfallId
+        String face = cardNode.path("side").asText(null);
+        card.setFace(face != null ? face : cardNode.path("faceName").asText(null));
 
+        card.setContentHash(contentHash(card));
         return card;
     }
-}
\ No newline at end of file
+
+    /**
+     * Escribe las cartas de un set por bloques de IMPORT_CHUNK_SIZE. Al crearlo
+     * guarda el set y carga la huella de sus cartas, por scryfallId y cara y,
+     * para las guardadas sin ellos, por scryfallId o por nombre; cada bloque se
+     * compara con ellas y solo se escriben las cartas nuevas y las modificadas,
+     * en lotes JDBC y en una transacción propia. El índice de búsqueda se
+     * actualiza cuando se confirma cada bloque.
+     *
+     * Si la base de datos rechaza un bloque por una restricción, se reintenta
+     * carta a carta y solo se descartan las cartas que vuelven a fallar.
+     */
+    private final class SetWriter {
+        private final SetMtg setMtg;
+        private final Map<CardKey, CardFingerprint> fingerprints;
+        // Cartas guardadas con scryfallId pero sin cara, por scryfallId; cada una se empareja una sola vez
+        private final Map<String, Deque<CardFingerprint>> withoutFace;
+        // Cartas guardadas sin scryfallId, por nombre; cada una se empareja una sola vez
+        private final Map<String, Deque<CardFingerprint>> withoutScryfallId;
+        private final ImportProgress progress;
+        private final List<ImportedCard> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        private final List<ImportRejectionDto> rejections = new ArrayList<>();
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int rejected;
+        private long nanos;
+
+        private SetWriter(SetMtg imported, ImportProgress progress) {
+            this.setMtg = upsertSet(imported);
+            this.fingerprints = cardBatchRepository.findFingerprints(setMtg.getSetId());
+            this.withoutFace = cardBatchRepository.findFingerprintsWithoutFace(setMtg.getSetId());
+            this.withoutScryfallId = cardBatchRepository.findFingerprintsWithoutScryfallId(setMtg.getSetId());
+            this.progress = progress;
+            eventPublisher.publishEvent(CatalogChangedEvent.set(setMtg.getSetId()));
+        }
+
+        void add(ImportedCard imported) {
+            imported.card().setSetMtg(setMtg);
+            chunk.add(imported);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Registra una carta descartada. Se cuentan todas, pero solo se
+         * guardan las primeras MAX_REPORTED_REJECTIONS para el resultado.
+         */
+        void reject(ImportRejectionDto rejection) {
+            rejected++;
+            progress.addRejected(1);
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(rejection);
+            }
+        }
+
+        /**
+         * Escribe el último bloque, actualiza el total de cartas del set con el
+         * conteo real y registra el ritmo de escritura en cartas por segundo.
+         */
+        ImportResultDto finish() {
+            flush();
+            int accepted = inserted + updated + unchanged;
+            setMtg.setTotalCards(accepted);
+            transactionTemplate.executeWithoutResult(status -> setMtgRepository.findById(setMtg.getSetId())
+                    .ifPresent(set -> set.setTotalCards(accepted)));
+            eventPublisher.publishEvent(CatalogChangedEvent.set(setMtg.getSetId()));
+
+            long rowsPerSecond = nanos == 0 ? 0 : (inserted + updated) * 1_000_000_000L / nanos;
+            log.info("Set {} importado: {} cartas nuevas, {} actualizadas, {} sin cambios y {} rechazadas en {} ms"
+                    + " de escritura ({} cartas/s)", setMtg.getSetCode(), inserted, updated, unchanged, rejected,
+                    nanos / 1_000_000, rowsPerSecond);
+            return new ImportResultDto(setMtg.getSetCode(), 1, inserted, updated, unchanged, accepted, rejected,
+                    rejections);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Card> inserts = new ArrayList<>();
+            List<Card> updates = new ArrayList<>();
+            List<ImportedCard> pending = new ArrayList<>();
+            for (ImportedCard imported : deduplicate(chunk)) {
+                Card card = imported.card();
+                CardFingerprint saved = card.getScryfallId() != null ? fingerprints.get(CardKey.of(card)) : null;
+                if (saved == null) {
+                    saved = claimWithoutFace(card);
+                }
+                if (saved == null) {
+                    saved = claimByName(card);
+                }
+                if (saved == null) {
+                    inserts.add(card);
+                    pending.add(imported);
+                } else if (!card.getContentHash().equals(saved.contentHash())) {
+                    card.setCardId(saved.cardId());
+                    updates.add(card);
+                    pending.add(imported);
+                } else {
+                    unchanged++;
+                }
+            }
+
+            long start = System.nanoTime();
+            try {
+                write(inserts, updates);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Bloque del set {} rechazado por la base de datos, se reintenta carta a carta: {}",
+                        setMtg.getSetCode(), e.getMostSpecificCause().getMessage());
+                // Los ID asignados en el lote fallido se deshicieron con la transacción
+                inserts.forEach(card -> card.setCardId(null));
+                inserts.clear();
+                updates.clear();
+                for (ImportedCard imported : pending) {
+                    Card card = imported.card();
+                    boolean isNew = card.getCardId() == null;
+                    try {
+                        write(isNew ? List.of(card) : List.of(), isNew ? List.of() : List.of(card));
+                        (isNew ? inserts : updates).add(card);
+                    } catch (DataIntegrityViolationException cardError) {
+                        reject(new ImportRejectionDto(imported.pointer(), card.getName(),
+                                cardError.getMostSpecificCause().getMessage()));
+                    }
+                }
+            }
+            nanos += System.nanoTime() - start;
+            // Las cartas nuevas solo cambian la lista del set; las actualizadas, también su propia entrada
+            eventPublisher.publishEvent(CatalogChangedEvent.cards(List.of(setMtg.getSetId()),
+                    updates.stream().map(Card::getCardId).toList()));
+            inserted += inserts.size();
+            updated += updates.size();
+            progress.addWritten(inserts.size() + updates.size());
+
+            for (Card card : inserts) {
+                // Una impresión repetida en un bloque posterior actualiza la primera
+                if (card.getScryfallId() != null) {
+                    fingerprints.put(CardKey.of(card), new CardFingerprint(card.getCardId(), card.getContentHash()));
+                }
+            }
+            chunk.clear();
+        }
+
+        /**
+         * Deja una sola carta por scryfallId y cara dentro del bloque: si se
+         * repite, la última sustituye a la anterior, igual que cuando las
+         * repeticiones caen en bloques distintos. Las sustituidas cuentan como
+         * aceptadas sin cambios.
+         */
+        private Collection<ImportedCard> deduplicate(List<ImportedCard> cards) {
+            Map<Object, ImportedCard> unique = new LinkedHashMap<>();
+            for (ImportedCard imported : cards) {
+                Card card = imported.card();
+                // Las cartas sin scryfallId se emparejan por nombre, una fila por aparición
+                Object key = card.getScryfallId() != null ? CardKey.of(card) : imported;
+                if (unique.put(key, imported) != null) {
+                    unchanged++;
+                }
+            }
+            return unique.values();
+        }
+
+        /**
+         * Empareja una cara de una carta de varias caras con la primera carta
+         * guardada con su scryfallId pero sin cara, como las importadas antes de
+         * guardarla. Al actualizarla recibe la cara, así que las reimportaciones
+         * siguientes ya la encuentran por ella.
+         */
+        private CardFingerprint claimWithoutFace(Card card) {
+            if (card.getScryfallId() == null || card.getFace() == null) {
+                return null;
+            }
+            Deque<CardFingerprint> candidates = withoutFace.get(card.getScryfallId());
+            CardFingerprint claimed = candidates != null ? candidates.poll() : null;
+            if (claimed == null) {
+                return null;
+            }
+            fingerprints.put(CardKey.of(card), claimed);
+            // Sin huella se actualiza aunque el contenido no cambie, para guardar la cara
+            return new CardFingerprint(claimed.cardId(), null);
+        }
+
+        /**
+         * Empareja la carta con la primera carta guardada sin scryfallId que
+         * tenga el mismo nombre. Al actualizarla recibe el scryfallId, así que
+         * las reimportaciones siguientes ya la encuentran por él.
+         */
+        private CardFingerprint claimByName(Card card) {
+            Deque<CardFingerprint> candidates = withoutScryfallId.get(card.getName());
+            CardFingerprint claimed = candidates != null ? candidates.poll() : null;
+            if (claimed != null && card.getScryfallId() != null) {
+                // Una impresión repetida en el mismo archivo actualiza la misma fila
+                fingerprints.put(CardKey.of(card), claimed);
+            }
+            return claimed;
+        }
+
+        private void write(List<Card> inserts, List<Card> updates) {
+            transactionTemplate.executeWithoutResult(status -> {
+                cardBatchRepository.insertAll(inserts);
+                cardBatchRepository.updateAll(updates);
+                cardSearchIndex.indexAll(inserts);
+                cardSearchIndex.indexAll(updates);
+            });
+        }
+    }
+
+    /**
+     * Carta mapeada junto con su JSON Pointer en el archivo.
+     */
+    private record ImportedCard(Card card, String pointer) {
+    }
+
+    /**
+     * Set de un volcado con sus cartas ya mapeadas y las rechazadas al
+     * mapear, pendiente de escribir.
+     */
+    private record MappedSet(SetMtg setMtg, List<ImportedCard> cards, List<ImportRejectionDto> rejections) {
+    }
+}
@@ -2,12 +2,20 @@ package com.setcollectormtg.setcollectormtg.service;
 
 import com.setcollectormtg.setcollectormtg.dto.CardCreateDto;
 import com.setcollectormtg.setcollectormtg.dto.CardDto;
+import com.setcollectormtg.setcollectormtg.dto.CardPageDto;
+import com.setcollectormtg.setcollectormtg.dto.CardSearchResultDto;
+import com.setcollectormtg.setcollectormtg.dto.CardSuggestionDto;
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.enums.ColorMatch;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface CardService {
     List<CardDto> getAllCards();
 
+    void exportCards(Consumer<CardDto> consumer);
+
     CardDto getCardById(Long id);
 
     CardDto createCard(CardCreateDto cardCreateDto);
@@ -18,9 +26,19 @@ public interface CardService {
 
     List<CardDto> getCardsByName(String name);
 
+    List<CardSuggestionDto> suggestCards(String prefix, int limit);
+
+    List<CardDto> searchCardsFuzzy(String name, int maxDistance, int limit);
+
+    List<CardDto> searchCardsByQuery(String query);
+
     List<CardDto> getCardsByType(String cardType);
 
     List<CardDto> getCardsByColor(String colorSymbol);
 
-    List<CardDto> getCardsByFilters(String name, String cardType, String colorSymbol, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax);
-}
\ No newline at end of file
+    List<CardDto> getCardsByFilters(String name, String cardType, String oracleText, String colorSymbol, ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax);
+
+    CardSearchResultDto searchCardsWithFacets(String name, String cardType, String oracleText, String colorSymbol, ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax);
+
+    CardPageDto searchCardsPage(String name, String cardType, String oracleText, String colorSymbol, ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax, CardSortField sortField, boolean descending, String cursor, int size);
+}
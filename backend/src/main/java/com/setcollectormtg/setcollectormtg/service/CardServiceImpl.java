@@ -1,29 +1,59 @@
 package com.setcollectormtg.setcollectormtg.service;
 
+import com.setcollectormtg.setcollectormtg.cache.CatalogCacheConfig;
+import com.setcollectormtg.setcollectormtg.cache.CatalogChangedEvent;
 import com.setcollectormtg.setcollectormtg.dto.CardCreateDto;
 import com.setcollectormtg.setcollectormtg.dto.CardDto;
+import com.setcollectormtg.setcollectormtg.dto.CardPageDto;
+import com.setcollectormtg.setcollectormtg.dto.CardSearchResultDto;
+import com.setcollectormtg.setcollectormtg.dto.CardSuggestionDto;
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.enums.ColorMatch;
 import com.setcollectormtg.setcollectormtg.exception.ResourceNotFoundException;
 import com.setcollectormtg.setcollectormtg.mapper.CardMapper;
 import com.setcollectormtg.setcollectormtg.model.Card;
 import com.setcollectormtg.setcollectormtg.model.SetMtg;
 import com.setcollectormtg.setcollectormtg.repository.CardRepository;
 import com.setcollectormtg.setcollectormtg.repository.SetMtgRepository;
+import com.setcollectormtg.setcollectormtg.search.CardCursor;
+import com.setcollectormtg.setcollectormtg.search.CardDocument;
+import com.setcollectormtg.setcollectormtg.search.CardFacets;
+import com.setcollectormtg.setcollectormtg.search.CardQuery;
+import com.setcollectormtg.setcollectormtg.search.CardQueryPlanner;
+import com.setcollectormtg.setcollectormtg.search.CardSearchCriteria;
+import com.setcollectormtg.setcollectormtg.search.CardSearchIndex;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CardServiceImpl implements CardService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_FUZZY_DISTANCE = 2;
+    private static final int MAX_FUZZY_RESULTS = 50;
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     private final CardRepository cardRepository;
     private final SetMtgRepository setMtgRepository;
     private final CardMapper cardMapper;
+    private final CardSearchIndex cardSearchIndex;
+    private final CardQueryPlanner cardQueryPlanner;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todas las cartas registradas en la base de datos.
@@ -39,26 +69,33 @@ public class CardServiceImpl implements CardService {
                     // Forzar inclusión de campos
                     dto.setCardId(card.getCardId());
                     dto.setOracleText(card.getOracleText());
-
-                    // Logging para depuración
-                    System.out.println("Card: " +
-                            "id=" + dto.getCardId() +
-                            ", name=" + dto.getName() +
-                            ", oracleText=" + dto.getOracleText());
-
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
     /**
-     * Obtiene una carta por su ID.
+     * Recorre todo el catálogo con un cursor de solo avance y entrega cada carta
+     * al consumidor en cuanto se lee, sin acumularlas en memoria. El contexto de
+     * persistencia se vacía cada EXPORT_BATCH_SIZE cartas.
+     *
+     * @param consumer Receptor de cada carta en formato DTO, en orden de ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCards(Consumer<CardDto> consumer) {
+        cardRepository.scrollAll(EXPORT_BATCH_SIZE, card -> consumer.accept(cardMapper.toDto(card)));
+    }
+
+    /**
+     * Obtiene una carta por su ID, desde la caché si ya se leyó y no ha cambiado.
      * Lanza excepción si no existe.
      *
      * @param id ID de la carta
      * @return DTO de la carta encontrada
      */
     @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.CARDS_BY_ID, sync = true)
     @Transactional(readOnly = true)
     public CardDto getCardById(Long id) {
         return cardRepository.findById(id)
@@ -90,6 +127,8 @@ public class CardServiceImpl implements CardService {
         }
 
         Card savedCard = cardRepository.save(card);
+        cardSearchIndex.index(savedCard);
+        eventPublisher.publishEvent(CatalogChangedEvent.card(savedCard.getCardId(), cardCreateDto.getSetId()));
         return cardMapper.toDto(savedCard);
     }
 
@@ -108,6 +147,8 @@ public class CardServiceImpl implements CardService {
         Card existingCard = cardRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + id));
 
+        Long previousSetId = existingCard.getSetMtg() != null ? existingCard.getSetMtg().getSetId() : null;
+
         // Log para depuración
         System.out.println("Actualizando carta: " + id + ", DTO recibido: " + cardDto);
         cardMapper.updateCardFromDto(cardDto, existingCard);
@@ -122,6 +163,9 @@ public class CardServiceImpl implements CardService {
         }
 
         Card updatedCard = cardRepository.save(existingCard);
+        cardSearchIndex.index(updatedCard);
+        eventPublisher.publishEvent(CatalogChangedEvent.card(id, previousSetId,
+                updatedCard.getSetMtg() != null ? updatedCard.getSetMtg().getSetId() : null));
         return cardMapper.toDto(updatedCard);
     }
 
@@ -137,6 +181,9 @@ public class CardServiceImpl implements CardService {
         Card card = cardRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + id));
         cardRepository.delete(card);
+        cardSearchIndex.remove(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.card(id,
+                card.getSetMtg() != null ? card.getSetMtg().getSetId() : null));
     }
 
     /**
@@ -146,13 +193,111 @@ public class CardServiceImpl implements CardService {
      * @return Lista de cartas que coinciden con el criterio
      */
     @Override
-    @Transactional(readOnly = true)
     public List<CardDto> getCardsByName(String name) {
+        if (cardSearchIndex.isReady()) {
+            return searchIndex(CardSearchCriteria.builder().name(name).build());
+        }
         return cardRepository.findByNameContainingIgnoreCase(name).stream()
                 .map(cardMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Sugiere cartas para autocompletar a partir del principio del nombre. Solo
+     * devuelve una impresión por nombre, la del set más reciente. El número de
+     * sugerencias se limita a CardSearchIndex.MAX_SUGGESTIONS.
+     *
+     * @param prefix Principio del nombre de la carta
+     * @param limit  Número máximo de sugerencias
+     * @return Sugerencias ordenadas por relevancia
+     */
+    @Override
+    public List<CardSuggestionDto> suggestCards(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        int maxSuggestions = Math.min(limit, CardSearchIndex.MAX_SUGGESTIONS);
+        // Los espacios finales se conservan: "sol " no debe sugerir "Solemn Simulacrum"
+        String start = prefix.stripLeading();
+
+        if (cardSearchIndex.isReady()) {
+            return cardSearchIndex.suggest(start, maxSuggestions).stream()
+                    .map(CardServiceImpl::toSuggestion)
+                    .collect(Collectors.toList());
+        }
+
+        // Se piden filas de más porque las reimpresiones se descartan
+        Map<String, CardSuggestionDto> byName = new LinkedHashMap<>();
+        for (Card card : cardRepository.findByNamePrefix(start.toLowerCase(Locale.ROOT),
+                PageRequest.ofSize(maxSuggestions * 4))) {
+            byName.putIfAbsent(card.getName().toLowerCase(Locale.ROOT), toSuggestion(CardDocument.from(card)));
+        }
+        return byName.values().stream().limit(maxSuggestions).collect(Collectors.toList());
+    }
+
+    /**
+     * Busca cartas con un nombre parecido al indicado, tolerando erratas
+     * ("Lightening Bolt"). Devuelve una impresión por nombre, de la distancia de
+     * edición menor a la mayor. La distancia se limita a MAX_FUZZY_DISTANCE y,
+     * para textos cortos, a una por cada cuatro caracteres, ya que si no casi
+     * cualquier nombre corto coincidiría.
+     *
+     * Se resuelve entero en memoria; mientras el índice no está listo se
+     * devuelven las coincidencias parciales de getCardsByName.
+     *
+     * @param name        Nombre aproximado de la carta
+     * @param maxDistance Distancia de edición máxima
+     * @param limit       Número máximo de cartas
+     * @return Cartas ordenadas por parecido
+     */
+    @Override
+    public List<CardDto> searchCardsFuzzy(String name, int maxDistance, int limit) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Max distance must not be negative");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (name == null || name.isBlank()) {
+            return new ArrayList<>();
+        }
+        String query = name.trim();
+        if (!cardSearchIndex.isReady()) {
+            return getCardsByName(query);
+        }
+
+        int distance = Math.min(Math.min(maxDistance, MAX_FUZZY_DISTANCE), Math.max(1, query.length() / 4));
+        return cardSearchIndex.searchFuzzy(query, distance, Math.min(limit, MAX_FUZZY_RESULTS)).stream()
+                .map(CardDocument::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Busca cartas con el lenguaje de consultas, por ejemplo
+     * {@code t:creature (c:r or c:g) mv<=3 -o:flying}. La consulta se compila
+     * (o se recupera de la caché de planes) y se ejecuta contra el índice en
+     * memoria; si aún no está construido, se traduce a una sola consulta JPQL.
+     *
+     * @param query Texto de la consulta
+     * @return Cartas que cumplen la consulta
+     * @throws IllegalArgumentException si la consulta no es válida
+     */
+    @Override
+    public List<CardDto> searchCardsByQuery(String query) {
+        CardQuery plan = cardQueryPlanner.compile(query);
+        if (cardSearchIndex.isReady()) {
+            return cardSearchIndex.search(plan).stream()
+                    .map(CardDocument::toDto)
+                    .collect(Collectors.toList());
+        }
+        return cardRepository.findByQuery(plan).stream()
+                .map(cardMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Busca cartas por tipo (parcial, ignorando mayúsculas/minúsculas).
      *
@@ -160,44 +305,48 @@ public class CardServiceImpl implements CardService {
      * @return Lista de cartas que coinciden con el criterio
      */
     @Override
-    @Transactional(readOnly = true)
     public List<CardDto> getCardsByType(String cardType) {
+        if (cardSearchIndex.isReady()) {
+            return searchIndex(CardSearchCriteria.builder().cardType(cardType).build());
+        }
         return cardRepository.findByCardTypeContainingIgnoreCase(cardType).stream()
                 .map(cardMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Busca cartas por color usando el símbolo de color en el coste de maná.
+     * Busca cartas por color usando la máscara de colores derivada del coste de
+     * maná.
      *
      * @param colorSymbol Símbolo de color (W, U, B, R, G) o C para incoloro
      * @return Lista de cartas que contienen el símbolo de color
      */
     @Override
-    @Transactional(readOnly = true)
     public List<CardDto> getCardsByColor(String colorSymbol) {
-        List<Card> cards;
-
-        // Si es C (incoloro), usar la consulta especial para cartas incoloras
-        if ("C".equals(colorSymbol)) {
-            cards = cardRepository.findColorlessCards();
-        } else {
-            cards = cardRepository.findByColorSymbol(colorSymbol);
+        int colorMask = ManaCostParser.maskOf(List.of(colorSymbol));
+        if (cardSearchIndex.isReady()) {
+            return searchIndex(CardSearchCriteria.builder().colorMask(colorMask).build());
         }
-
-        return cards.stream()
+        return cardRepository.findByColorMaskIn(ColorMatch.INCLUDES.matchingMasks(colorMask)).stream()
                 .map(cardMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     /**
      * Busca cartas aplicando múltiples filtros de forma combinada.
-     * Los parámetros nulos se ignoran.
+     * Los parámetros nulos se ignoran. Se resuelve con el índice en memoria
+     * y solo se consulta la base de datos si el índice aún no está construido.
+     * El filtro de color se traduce a una máscara de colores, que se resuelve
+     * con una unión de bitmaps en memoria o con un IN sobre la columna indexada.
      *
      * @param name        Nombre o parte del nombre de la carta (opcional)
      * @param cardType    Tipo o parte del tipo de la carta (opcional)
+     * @param oracleText  Palabras del texto de reglas, todas obligatorias; entre
+     *                    comillas se busca la frase exacta. Los resultados se
+     *                    ordenan por relevancia BM25 (opcional)
      * @param colorSymbol Símbolo de color o múltiples símbolos separados por comas
      *                    (opcional)
+     * @param colorMatch  Modo de comparación de colores; INCLUDES si es nulo
      * @param setCode     Código del set (opcional)
      * @param rarity      Rareza de la carta (opcional)
      * @param manaCostMin Coste mínimo de maná (opcional)
@@ -205,44 +354,153 @@ public class CardServiceImpl implements CardService {
      * @return Lista de cartas que cumplen todos los criterios proporcionados
      */
     @Override
-    @Transactional(readOnly = true)
-    public List<CardDto> getCardsByFilters(String name, String cardType, String colorSymbol, String setCode,
-            String rarity, Integer manaCostMin, Integer manaCostMax) {
-        // Si hay múltiples colores separados por comas, realizar búsquedas para cada
-        // color
-        // y devolver la intersección de los resultados
-        if (colorSymbol != null && colorSymbol.contains(",") && !colorSymbol.equals("C")) {
-            String[] colors = colorSymbol.split(",");
-
-            // Si uno de los colores es C (incoloro), es una contradicción, devolvemos lista
-            // vacía
-            // Una carta no puede ser incolora y tener color al mismo tiempo
-            if (Arrays.asList(colors).contains("C")) {
-                return new ArrayList<>();
-            }
-
-            // Obtenemos los resultados para el primer color
-            List<Card> result = cardRepository.findByFilters(name, cardType, rarity, setCode, colors[0], manaCostMin,
-                    manaCostMax);
-
-            // Para cada color adicional, filtramos los resultados
-            for (int i = 1; i < colors.length; i++) {
-                final String currentColor = colors[i];
-                // Retenemos solo cartas que también contienen este color
-                result = result.stream()
-                        .filter(card -> card.getManaCost() != null && card.getManaCost().contains(currentColor))
-                        .collect(Collectors.toList());
-            }
+    public List<CardDto> getCardsByFilters(String name, String cardType, String oracleText, String colorSymbol,
+            ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax) {
+        CardSearchCriteria criteria = buildCriteria(name, cardType, oracleText, colorSymbol, colorMatch, setCode,
+                rarity, manaCostMin, manaCostMax);
+        if (criteria == null) {
+            return new ArrayList<>();
+        }
 
-            return result.stream()
-                    .map(cardMapper::toDto)
-                    .collect(Collectors.toList());
+        if (cardSearchIndex.isReady()) {
+            return searchIndex(criteria);
         }
 
-        // Caso normal: un solo color o ninguno
-        return cardRepository.findByFilters(name, cardType, rarity, setCode, colorSymbol, manaCostMin, manaCostMax)
+        // Sin filtro de color la lista de máscaras no se evalúa, pero no puede ir vacía
+        List<Integer> colorMasks = criteria.getColorMask() != null
+                ? criteria.getColorMatch().matchingMasks(criteria.getColorMask())
+                : List.of(ManaCostParser.COLORLESS_MASK);
+        // Sin índice el texto de reglas se busca como subcadena, sin puntuar
+        String oracleSubstring = criteria.getOracleText() != null
+                ? criteria.getOracleText().replace("\"", "").trim()
+                : null;
+        return cardRepository.findByFilters(name, cardType, oracleSubstring, rarity, setCode,
+                        criteria.getColorMask() == null, colorMasks, manaCostMin, manaCostMax)
                 .stream()
                 .map(cardMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Busca cartas aplicando los mismos filtros que getCardsByFilters y devuelve
+     * además los recuentos por rareza, color, set y valor de maná del resultado.
+     * Con el índice listo las facetas se cuentan en el mismo recorrido que
+     * genera los resultados; si no, con una única consulta agrupada.
+     *
+     * @return Cartas encontradas y recuentos por faceta
+     */
+    @Override
+    public CardSearchResultDto searchCardsWithFacets(String name, String cardType, String oracleText,
+            String colorSymbol, ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin,
+            Integer manaCostMax) {
+        CardFacets facets = new CardFacets();
+        CardSearchCriteria criteria = buildCriteria(name, cardType, oracleText, colorSymbol, colorMatch, setCode,
+                rarity, manaCostMin, manaCostMax);
+        if (criteria == null) {
+            return new CardSearchResultDto(new ArrayList<>(), facets.toDto());
+        }
+
+        if (cardSearchIndex.isReady()) {
+            List<CardDto> cards = cardSearchIndex.search(criteria, facets).stream()
+                    .map(CardDocument::toDto)
+                    .collect(Collectors.toList());
+            return new CardSearchResultDto(cards, facets.toDto());
+        }
+
+        List<CardDto> cards = getCardsByFilters(name, cardType, oracleText, colorSymbol, colorMatch, setCode,
+                rarity, manaCostMin, manaCostMax);
+        cardRepository.countFacets(criteria, facets);
+        return new CardSearchResultDto(cards, facets.toDto());
+    }
+
+    /**
+     * Busca una página de cartas ordenada usando paginación por keyset: el cursor
+     * guarda la clave de ordenación y el ID de la última carta devuelta, así que
+     * cualquier página cuesta lo mismo que la primera. El tamaño se limita a
+     * MAX_PAGE_SIZE.
+     *
+     * @param sortField  Campo de ordenación
+     * @param descending true para orden descendente
+     * @param cursor     Cursor devuelto en la página anterior (opcional)
+     * @param size       Número de cartas por página
+     * @return Página de cartas con el cursor de la siguiente
+     */
+    @Override
+    public CardPageDto searchCardsPage(String name, String cardType, String oracleText, String colorSymbol,
+            ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax,
+            CardSortField sortField, boolean descending, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        CardCursor after = cursor != null ? CardCursor.decode(cursor, sortField, descending) : null;
+
+        CardSearchCriteria criteria = buildCriteria(name, cardType, oracleText, colorSymbol, colorMatch, setCode,
+                rarity, manaCostMin, manaCostMax);
+        if (criteria == null) {
+            return new CardPageDto(new ArrayList<>(), null, false);
+        }
+
+        // Se pide un elemento de más para saber si hay página siguiente
+        List<CardDocument> documents;
+        if (cardSearchIndex.isReady()) {
+            documents = cardSearchIndex.page(criteria, sortField, descending, after, pageSize + 1);
+        } else {
+            documents = cardRepository.findPage(criteria, sortField, descending, after, pageSize + 1).stream()
+                    .map(CardDocument::from)
+                    .collect(Collectors.toList());
+        }
+
+        boolean hasNext = documents.size() > pageSize;
+        List<CardDocument> page = hasNext ? documents.subList(0, pageSize) : documents;
+        String nextCursor = hasNext
+                ? CardCursor.after(page.get(page.size() - 1), sortField, descending).encode()
+                : null;
+        return new CardPageDto(page.stream().map(CardDocument::toDto).collect(Collectors.toList()), nextCursor,
+                hasNext);
+    }
+
+    /**
+     * Construye los criterios de búsqueda a partir de los parámetros de la API.
+     * El filtro de color se traduce a una máscara de colores.
+     *
+     * @return Criterios de búsqueda, o null si los colores son contradictorios
+     */
+    private CardSearchCriteria buildCriteria(String name, String cardType, String oracleText, String colorSymbol,
+            ColorMatch colorMatch, String setCode, String rarity, Integer manaCostMin, Integer manaCostMax) {
+        ColorMatch match = colorMatch != null ? colorMatch : ColorMatch.INCLUDES;
+        Integer colorMask = null;
+        if (colorSymbol != null && !colorSymbol.isBlank()) {
+            List<String> colors = Arrays.asList(colorSymbol.split(","));
+
+            // Una carta no puede ser incolora y tener color al mismo tiempo
+            if (match != ColorMatch.AT_MOST && colors.size() > 1
+                    && colors.stream().anyMatch(color -> ManaCostParser.COLORLESS_SYMBOL.equalsIgnoreCase(color.trim()))) {
+                return null;
+            }
+            colorMask = ManaCostParser.maskOf(colors);
+        }
+
+        return CardSearchCriteria.builder()
+                .name(name)
+                .cardType(cardType)
+                .oracleText(oracleText != null && !oracleText.isBlank() ? oracleText : null)
+                .rarity(rarity)
+                .setCode(setCode)
+                .colorMask(colorMask)
+                .colorMatch(match)
+                .manaCostMin(manaCostMin)
+                .manaCostMax(manaCostMax)
+                .build();
+    }
+
+    private List<CardDto> searchIndex(CardSearchCriteria criteria) {
+        return cardSearchIndex.search(criteria).stream()
+                .map(CardDocument::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private static CardSuggestionDto toSuggestion(CardDocument document) {
+        return new CardSuggestionDto(document.getCardId(), document.getName(), document.getSetCode());
+    }
+}
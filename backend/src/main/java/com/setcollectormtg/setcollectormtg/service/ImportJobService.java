@@ -0,0 +1,196 @@
+package com.setcollectormtg.setcollectormtg.service;
+
+import com.setcollectormtg.setcollectormtg.dto.ImportJobDto;
+import com.setcollectormtg.setcollectormtg.dto.ImportResultDto;
+import com.setcollectormtg.setcollectormtg.enums.ImportJobStatus;
+import com.setcollectormtg.setcollectormtg.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta las importaciones de cartas como trabajos en segundo plano.
+ *
+ * Los trabajos se ejecutan en un pool propio de tamaño fijo con una cola
+ * acotada, así que nunca ocupan hilos de Tomcat y como mucho hay tantas
+ * importaciones usando conexiones de la base de datos como hilos tiene el pool.
+ * Si la cola está llena el trabajo se rechaza. El estado de los trabajos se
+ * guarda en memoria; se conservan los últimos MAX_FINISHED_JOBS terminados.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final CardImportService cardImportService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(CardImportService cardImportService,
+            @Value("${app.import.workers:2}") int workers,
+            @Value("${app.import.queue-capacity:8}") int queueCapacity) {
+        this.cardImportService = cardImportService;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "card-import-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Encola la importación de un archivo. El archivo pasa a ser del trabajo,
+     * que lo borra al terminar.
+     *
+     * @param jsonFile Archivo JSON temporal con el set o con el volcado
+     * @param fileName Nombre original del archivo
+     * @param bulk     true si el archivo es un volcado con varios sets (AllPrintings)
+     * @return Estado inicial del trabajo
+     * @throws RejectedExecutionException si la cola de importaciones está llena
+     */
+    public ImportJobDto submit(Path jsonFile, String fileName, boolean bulk) {
+        pruneFinishedJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, jsonFile, bulk));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        log.info("Trabajo de importación {} encolado para {}", job.id, fileName);
+        return job.toDto();
+    }
+
+    /**
+     * Devuelve el estado actual de un trabajo.
+     *
+     * @param jobId ID del trabajo
+     * @return Estado y avance del trabajo
+     * @throws ResourceNotFoundException si el trabajo no existe o ya se descartó
+     */
+    public ImportJobDto getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found with id: " + jobId);
+        }
+        return job.toDto();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path jsonFile, boolean bulk) {
+        job.startedAt = LocalDateTime.now();
+        job.status = ImportJobStatus.RUNNING;
+        try {
+            job.result = bulk
+                    ? cardImportService.importAllPrintings(jsonFile.toString(), job.progress)
+                    : cardImportService.importSetFromJson(jsonFile.toString(), job.progress);
+            job.status = ImportJobStatus.COMPLETED;
+            log.info("Trabajo de importación {} terminado: {}", job.id, job.result);
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = ImportJobStatus.FAILED;
+            log.error("Error en el trabajo de importación {}: {}", job.id, e.getMessage(), e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(jsonFile);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el archivo temporal {}", jsonFile, e);
+            }
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((ImportJob job) -> job.finishedAt).reversed())
+                .skip(MAX_FINISHED_JOBS)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    /**
+     * Estado mutable de un trabajo. Lo escribe el hilo de importación y lo leen
+     * las peticiones de estado.
+     */
+    private static final class ImportJob {
+        private final String id;
+        private final String fileName;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final ImportProgress progress = new ImportProgress();
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile ImportResultDto result;
+        private volatile String error;
+
+        private ImportJob(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        /**
+         * Copia el estado calculando el ritmo de lectura y, mientras se ejecuta,
+         * el tiempo restante estimado a ese ritmo: en bytes del archivo si se
+         * conoce su tamaño y, si no, en cartas.
+         */
+        private ImportJobDto toDto() {
+            int parsed = progress.getCardsParsed();
+            Integer total = progress.getCardsTotal();
+            Long bytesTotal = progress.getBytesTotal();
+            long bytesRead = progress.getBytesRead();
+            LocalDateTime started = startedAt;
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            long elapsedMillis = started != null ? Duration.between(started, end).toMillis() : 0;
+            long cardsPerSecond = elapsedMillis > 0 ? parsed * 1000L / elapsedMillis : 0;
+            Long etaSeconds = null;
+            if (status == ImportJobStatus.RUNNING && bytesTotal != null && bytesRead > 0) {
+                etaSeconds = (long) ((double) elapsedMillis * Math.max(0, bytesTotal - bytesRead) / bytesRead / 1000);
+            } else if (status == ImportJobStatus.RUNNING && total != null && cardsPerSecond > 0) {
+                etaSeconds = Math.max(0, total - parsed) / cardsPerSecond;
+            } else if (finishedAt != null) {
+                etaSeconds = 0L;
+            }
+            return ImportJobDto.builder()
+                    .jobId(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .cardsTotal(total)
+                    .cardsParsed(parsed)
+                    .cardsWritten(progress.getCardsWritten())
+                    .cardsRejected(progress.getCardsRejected())
+                    .bytesTotal(bytesTotal)
+                    .bytesRead(bytesRead)
+                    .cardsPerSecond(cardsPerSecond)
+                    .etaSeconds(etaSeconds)
+                    .submittedAt(submittedAt)
+                    .startedAt(started)
+                    .finishedAt(finishedAt)
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.setcollectormtg.setcollectormtg.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de avance de una importación. El hilo que importa los actualiza y
+ * cualquier otro puede leerlos mientras tanto.
+ */
+public class ImportProgress {
+
+    private final AtomicInteger cardsTotal = new AtomicInteger(-1);
+    private final AtomicInteger cardsParsed = new AtomicInteger();
+    private final AtomicInteger cardsWritten = new AtomicInteger();
+    private final AtomicInteger cardsRejected = new AtomicInteger();
+    private final AtomicLong bytesTotal = new AtomicLong(-1);
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    void setCardsTotal(int total) {
+        cardsTotal.set(total);
+    }
+
+    void addParsed(int cards) {
+        cardsParsed.addAndGet(cards);
+    }
+
+    void addWritten(int cards) {
+        cardsWritten.addAndGet(cards);
+    }
+
+    void addRejected(int cards) {
+        cardsRejected.addAndGet(cards);
+    }
+
+    void setBytesTotal(long total) {
+        bytesTotal.set(total);
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    /**
+     * @return Número de cartas del archivo, o null si aún no se conoce
+     */
+    public Integer getCardsTotal() {
+        int total = cardsTotal.get();
+        return total < 0 ? null : total;
+    }
+
+    public int getCardsParsed() {
+        return cardsParsed.get();
+    }
+
+    /**
+     * @return Cartas insertadas o actualizadas; las que no cambian no cuentan
+     */
+    public int getCardsWritten() {
+        return cardsWritten.get();
+    }
+
+    /**
+     * @return Cartas descartadas por no poder mapearse o guardarse
+     */
+    public int getCardsRejected() {
+        return cardsRejected.get();
+    }
+
+    /**
+     * @return Tamaño del archivo en disco, o null si el avance se mide en cartas
+     */
+    public Long getBytesTotal() {
+        long total = bytesTotal.get();
+        return total < 0 ? null : total;
+    }
+
+    /**
+     * @return Bytes del archivo en disco leídos hasta ahora, antes de descomprimir
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+}
@@ -1,5 +1,7 @@
 package com.setcollectormtg.setcollectormtg.service;
 
+import com.setcollectormtg.setcollectormtg.cache.CatalogCacheConfig;
+import com.setcollectormtg.setcollectormtg.cache.CatalogChangedEvent;
 import com.setcollectormtg.setcollectormtg.dto.SetMtgCreateDto;
 import com.setcollectormtg.setcollectormtg.dto.SetMtgDto;
 import com.setcollectormtg.setcollectormtg.dto.CardDto;
@@ -8,11 +10,16 @@ import com.setcollectormtg.setcollectormtg.mapper.SetMtgMapper;
 import com.setcollectormtg.setcollectormtg.mapper.CardMapper;
 import com.setcollectormtg.setcollectormtg.model.SetMtg;
 import com.setcollectormtg.setcollectormtg.repository.SetMtgRepository;
+import com.setcollectormtg.setcollectormtg.search.CardSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -22,13 +29,17 @@ public class SetMtgServiceImpl implements SetMtgService {
     private final SetMtgRepository setMtgRepository;
     private final SetMtgMapper setMtgMapper;
     private final CardMapper cardMapper;
+    private final CardSearchIndex cardSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Obtiene todos los sets registrados en la base de datos.
+     * Obtiene todos los sets registrados en la base de datos. El resultado se
+     * cachea hasta que cambia algún set.
      *
      * @return Lista de sets en formato DTO
      */
     @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.ALL_SETS, sync = true)
     @Transactional(readOnly = true)
     public List<SetMtgDto> getAllSets() {
         return setMtgRepository.findAll().stream()
@@ -44,6 +55,7 @@ public class SetMtgServiceImpl implements SetMtgService {
      * @return DTO del set encontrado
      */
     @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.SETS_BY_ID, sync = true)
     @Transactional(readOnly = true)
     public SetMtgDto getSetById(Long id) {
         return setMtgRepository.findById(id)
@@ -59,6 +71,7 @@ public class SetMtgServiceImpl implements SetMtgService {
      * @return DTO del set encontrado
      */
     @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.SETS_BY_CODE, sync = true)
     @Transactional(readOnly = true)
     public SetMtgDto getSetByCode(String setCode) {
         return setMtgRepository.findBySetCode(setCode)
@@ -81,6 +94,7 @@ public class SetMtgServiceImpl implements SetMtgService {
 
         SetMtg setMtg = setMtgMapper.toEntity(setMtgCreateDto);
         SetMtg savedSet = setMtgRepository.save(setMtg);
+        eventPublisher.publishEvent(CatalogChangedEvent.set(savedSet.getSetId()));
         return setMtgMapper.toDto(savedSet);
     }
 
@@ -103,8 +117,18 @@ public class SetMtgServiceImpl implements SetMtgService {
             throw new IllegalArgumentException("Set code " + setDetails.getSetCode() + " already exists");
         }
 
+        String previousCode = setMtg.getSetCode();
+        LocalDate previousReleaseDate = setMtg.getReleaseDate();
         setMtgMapper.updateSetFromDto(setDetails, setMtg);
         SetMtg updatedSet = setMtgRepository.save(setMtg);
+
+        // Las cartas indexadas guardan el código y la fecha del set para filtrar
+        // y ordenar por ellos
+        if (!previousCode.equals(updatedSet.getSetCode())
+                || !Objects.equals(previousReleaseDate, updatedSet.getReleaseDate())) {
+            cardSearchIndex.refreshSet(updatedSet.getSetId(), updatedSet.getSetCode(), updatedSet.getReleaseDate());
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.set(id));
         return setMtgMapper.toDto(updatedSet);
     }
 
@@ -124,6 +148,7 @@ public class SetMtgServiceImpl implements SetMtgService {
         }
 
         setMtgRepository.delete(setMtg);
+        eventPublisher.publishEvent(CatalogChangedEvent.set(id));
     }
 
     /**
@@ -134,6 +159,7 @@ public class SetMtgServiceImpl implements SetMtgService {
      * @return Lista de cartas en formato DTO
      */
     @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.SET_CARDS, sync = true)
     @Transactional(readOnly = true)
     public List<CardDto> getCardsBySet(Long setId) {
         SetMtg setMtg = setMtgRepository.findById(setId)
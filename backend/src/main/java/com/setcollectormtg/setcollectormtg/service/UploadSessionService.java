@@ -0,0 +1,353 @@
+package com.setcollectormtg.setcollectormtg.service;
+
+import com.setcollectormtg.setcollectormtg.dto.ImportJobDto;
+import com.setcollectormtg.setcollectormtg.dto.UploadSessionDto;
+import com.setcollectormtg.setcollectormtg.enums.ImportFileFormat;
+import com.setcollectormtg.setcollectormtg.exception.ResourceNotFoundException;
+import com.setcollectormtg.setcollectormtg.exception.UploadOffsetMismatchException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Subidas por partes de archivos de importación demasiado grandes para una
+ * sola petición multipart.
+ *
+ * El cliente inicia la subida, envía los bloques en orden indicando su
+ * desplazamiento y el CRC32C de su contenido, y al terminar la completa. Cada
+ * bloque se escribe con escrituras posicionales en el archivo de la subida y
+ * solo se confirma si su CRC32C coincide; si la conexión se corta a mitad de un
+ * bloque, lo escrito se descarta y el cliente reanuda desde el último
+ * desplazamiento confirmado, que puede consultar. Al completarla, el archivo
+ * pasa a ImportJobService como un trabajo en segundo plano.
+ *
+ * Las subidas se guardan en memoria; cada pruneInterval se descartan, junto
+ * con su archivo, las que llevan más de uploadTtl sin recibir bloques. Como no
+ * sobreviven a un reinicio, al arrancar se borran los archivos que quedaron en
+ * uploadDir.
+ */
+@Slf4j
+@Service
+public class UploadSessionService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ImportJobService importJobService;
+    private final Path uploadDir;
+    private final long maxChunkBytes;
+    private final Duration uploadTtl;
+    private final Duration pruneInterval;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "upload-prune");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UploadSessionService(ImportJobService importJobService,
+            @Value("${app.import.upload-dir:${java.io.tmpdir}/setcollector-uploads}") String uploadDir,
+            @Value("${app.import.max-chunk-size:16MB}") DataSize maxChunkSize,
+            @Value("${app.import.upload-ttl:24h}") Duration uploadTtl,
+            @Value("${app.import.upload-prune-interval:15m}") Duration pruneInterval) {
+        this.importJobService = importJobService;
+        this.uploadDir = Paths.get(uploadDir);
+        this.maxChunkBytes = maxChunkSize.toBytes();
+        this.uploadTtl = uploadTtl;
+        this.pruneInterval = pruneInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        deleteLeftoverFiles();
+        long intervalMillis = pruneInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::pruneExpiredSessions, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Inicia una subida creando su archivo vacío.
+     *
+     * @param fileName  Nombre original del archivo; su extensión indica el formato
+     * @param bulk      true si el archivo es un volcado con varios sets (AllPrintings)
+     * @param totalSize Tamaño total en bytes, o null si no se conoce
+     * @return Estado inicial de la subida
+     * @throws IllegalArgumentException si el formato no es válido o el tamaño es negativo
+     * @throws IOException              Si no se puede crear el archivo
+     */
+    public UploadSessionDto initiate(String fileName, boolean bulk, Long totalSize) throws IOException {
+        ImportFileFormat format = ImportFileFormat.fromFileName(fileName);
+        if (totalSize != null && totalSize < 0) {
+            throw new IllegalArgumentException("Total size must not be negative");
+        }
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(uploadDir);
+        UploadSession session = new UploadSession(id, fileName, bulk, totalSize,
+                Files.createFile(uploadDir.resolve(id + format.extension())));
+        sessions.put(id, session);
+        log.info("Subida {} iniciada para {}", id, fileName);
+        return session.toDto();
+    }
+
+    /**
+     * Devuelve el estado de una subida, con el desplazamiento desde el que
+     * debe continuar.
+     *
+     * @param uploadId ID de la subida
+     * @return Estado de la subida
+     * @throws ResourceNotFoundException si la subida no existe o ya terminó
+     */
+    public UploadSessionDto getSession(String uploadId) {
+        return findSession(uploadId).toDto();
+    }
+
+    /**
+     * Escribe un bloque a partir de su desplazamiento y lo confirma si su
+     * CRC32C coincide. Si falla la lectura o la comprobación, el archivo vuelve
+     * al último desplazamiento confirmado.
+     *
+     * @param uploadId ID de la subida
+     * @param offset   Desplazamiento del bloque; debe ser el último confirmado
+     * @param chunk    Contenido del bloque
+     * @param crc32c   CRC32C del bloque en hexadecimal
+     * @return Estado de la subida con el nuevo desplazamiento
+     * @throws UploadOffsetMismatchException si el desplazamiento no es el confirmado
+     * @throws IllegalArgumentException      si el CRC32C no coincide o el bloque es demasiado grande
+     * @throws IOException                   Si falla la lectura del bloque o la escritura
+     */
+    public UploadSessionDto appendChunk(String uploadId, long offset, InputStream chunk, String crc32c)
+            throws IOException {
+        UploadSession session = findSession(uploadId);
+        long expected = parseChecksum(crc32c);
+        synchronized (session) {
+            session.checkOpen();
+            if (offset != session.offset) {
+                throw new UploadOffsetMismatchException("Chunk offset " + offset
+                        + " does not match the acknowledged offset " + session.offset, session.offset);
+            }
+            try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                long position = offset;
+                try {
+                    CRC32C checksum = new CRC32C();
+                    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                    int read;
+                    while ((read = chunk.read(buffer.array())) != -1) {
+                        if (position - offset + read > maxChunkBytes) {
+                            throw new IllegalArgumentException("Chunk exceeds the maximum size of "
+                                    + maxChunkBytes + " bytes");
+                        }
+                        checksum.update(buffer.array(), 0, read);
+                        buffer.clear().limit(read);
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                    }
+                    if (checksum.getValue() != expected) {
+                        throw new IllegalArgumentException("Chunk checksum mismatch at offset " + offset);
+                    }
+                    if (session.totalSize != null && position > session.totalSize) {
+                        throw new IllegalArgumentException("Chunk goes past the declared total size of "
+                                + session.totalSize + " bytes");
+                    }
+                    // El bloque debe estar en disco antes de confirmarlo
+                    channel.force(false);
+                } catch (IOException | RuntimeException e) {
+                    channel.truncate(offset);
+                    throw e;
+                }
+                session.offset = position;
+                session.updatedAt = LocalDateTime.now();
+            }
+            return session.toDto();
+        }
+    }
+
+    /**
+     * Termina la subida y encola la importación del archivo.
+     *
+     * @param uploadId ID de la subida
+     * @return Estado inicial del trabajo de importación
+     * @throws IllegalStateException      si aún faltan bytes del tamaño anunciado
+     * @throws RejectedExecutionException si la cola de importaciones está llena;
+     *                                    la subida se conserva para reintentarlo
+     */
+    public ImportJobDto complete(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        synchronized (session) {
+            session.checkOpen();
+            if (session.totalSize != null && session.offset != session.totalSize) {
+                throw new IllegalStateException("Upload is incomplete: " + session.offset + " of "
+                        + session.totalSize + " bytes received");
+            }
+            // El trabajo pasa a ser el dueño del archivo y lo borra al terminar
+            ImportJobDto job = importJobService.submit(session.file, session.fileName, session.bulk);
+            session.closed = true;
+            sessions.remove(uploadId);
+            log.info("Subida {} completada con {} bytes; trabajo {}", uploadId, session.offset, job.getJobId());
+            return job;
+        }
+    }
+
+    /**
+     * Cancela una subida y borra su archivo.
+     *
+     * @param uploadId ID de la subida
+     * @throws ResourceNotFoundException si la subida no existe o ya terminó
+     */
+    public void abort(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        synchronized (session) {
+            session.checkOpen();
+            discard(session);
+        }
+    }
+
+    private UploadSession findSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new ResourceNotFoundException("Upload not found with id: " + uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * Descarta las subidas que llevan más de uploadTtl sin recibir bloques.
+     */
+    void pruneExpiredSessions() {
+        LocalDateTime limit = LocalDateTime.now().minus(uploadTtl);
+        sessions.values().stream()
+                .filter(session -> session.updatedAt.isBefore(limit))
+                .forEach(session -> {
+                    synchronized (session) {
+                        if (!session.closed) {
+                            log.info("Subida {} caducada", session.id);
+                            discard(session);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Borra los archivos de subidas de una ejecución anterior. Solo se tocan los
+     * que tienen la extensión de un formato de importación.
+     */
+    void deleteLeftoverFiles() {
+        if (!Files.isDirectory(uploadDir)) {
+            return;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir, file -> Files.isRegularFile(file)
+                && Arrays.stream(ImportFileFormat.values())
+                        .anyMatch(format -> file.getFileName().toString().endsWith(format.extension())))) {
+            for (Path file : files) {
+                if (!sessions.containsKey(uploadId(file))) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudieron borrar los archivos de subidas anteriores en {}", uploadDir, e);
+            return;
+        }
+        if (deleted > 0) {
+            log.info("Borrados {} archivos de subidas anteriores en {}", deleted, uploadDir);
+        }
+    }
+
+    private static String uploadId(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot >= 0 ? name.substring(0, dot) : name;
+    }
+
+    private void discard(UploadSession session) {
+        session.closed = true;
+        sessions.remove(session.id);
+        try {
+            Files.deleteIfExists(session.file);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo de la subida {}", session.file, e);
+        }
+    }
+
+    private static long parseChecksum(String crc32c) {
+        if (crc32c == null || crc32c.isBlank()) {
+            throw new IllegalArgumentException("Missing chunk CRC32C checksum");
+        }
+        try {
+            return Long.parseLong(crc32c.trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid chunk CRC32C checksum: " + crc32c);
+        }
+    }
+
+    /**
+     * Estado mutable de una subida; se accede sincronizando sobre ella.
+     */
+    private static final class UploadSession {
+        private final String id;
+        private final String fileName;
+        private final boolean bulk;
+        private final Long totalSize;
+        private final Path file;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile long offset;
+        private volatile LocalDateTime updatedAt = createdAt;
+        private boolean closed;
+
+        private UploadSession(String id, String fileName, boolean bulk, Long totalSize, Path file) {
+            this.id = id;
+            this.fileName = fileName;
+            this.bulk = bulk;
+            this.totalSize = totalSize;
+            this.file = file;
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new ResourceNotFoundException("Upload not found with id: " + id);
+            }
+        }
+
+        private UploadSessionDto toDto() {
+            return UploadSessionDto.builder()
+                    .uploadId(id)
+                    .fileName(fileName)
+                    .bulk(bulk)
+                    .offset(offset)
+                    .totalSize(totalSize)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+}
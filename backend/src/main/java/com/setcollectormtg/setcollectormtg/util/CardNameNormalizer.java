@@ -0,0 +1,79 @@
+package com.setcollectormtg.setcollectormtg.util;
+
+import java.text.Normalizer;
+
+/**
+ * Utilidad para calcular la clave de ordenación por nombre de una carta.
+ *
+ * La clave se guarda en la columna indexada sort_name y la usan tanto la
+ * consulta SQL paginada como el índice en memoria, así que debe ordenarse igual
+ * con String.compareTo que con la collation de MySQL. Por eso solo contiene
+ * letras ASCII en minúscula, dígitos y espacios simples: se quitan los acentos
+ * ("Lim-Dûl" pasa a "lim dul"), se expanden las ligaduras ("Æther" pasa a
+ * "aether") y cualquier otro carácter se trata como separador.
+ */
+public final class CardNameNormalizer {
+
+    /** Longitud de la columna sort_name. */
+    public static final int MAX_LENGTH = 255;
+
+    private CardNameNormalizer() {
+    }
+
+    /**
+     * Calcula la clave de ordenación de un nombre.
+     *
+     * @param name Nombre de la carta
+     * @return Clave normalizada; cadena vacía si el nombre es nulo o no tiene
+     *         letras ni dígitos
+     */
+    public static String sortKey(String name) {
+        if (name == null || name.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length() && key.length() < MAX_LENGTH; i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            String mapped = map(c);
+            if (mapped == null) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            key.append(mapped);
+        }
+        return key.length() > MAX_LENGTH ? key.substring(0, MAX_LENGTH).trim() : key.toString();
+    }
+
+    /**
+     * Letras y dígitos ASCII en minúscula, o null si el carácter separa palabras.
+     */
+    private static String map(char c) {
+        if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+            return String.valueOf(c);
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return String.valueOf((char) (c + ('a' - 'A')));
+        }
+        return switch (c) {
+            case 'Æ', 'æ' -> "ae";
+            case 'Œ', 'œ' -> "oe";
+            case 'ß' -> "ss";
+            case 'Ø', 'ø' -> "o";
+            case 'Đ', 'đ', 'Ð', 'ð' -> "d";
+            case 'Ł', 'ł' -> "l";
+            case 'Þ', 'þ' -> "th";
+            // Los apóstrofos no separan palabras: "Urza's" pasa a "urzas"
+            case '\'', '’' -> "";
+            default -> null;
+        };
+    }
+}
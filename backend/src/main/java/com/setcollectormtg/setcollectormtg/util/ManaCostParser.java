@@ -0,0 +1,90 @@
+package com.setcollectormtg.setcollectormtg.util;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Utilidad para interpretar costes de maná y convertirlos en una máscara de 5
+ * bits con los colores de la carta (W=1, U=2, B=4, R=8, G=16).
+ *
+ * Reconoce los símbolos entre llaves de MTGJSON/Scryfall, incluidos híbridos
+ * ({W/U}, {2/W}) y pirexianos ({G/P}), así como costes escritos sin llaves
+ * ("2WW"). Los símbolos genéricos, X, C (incoloro) o S (nieve) no aportan
+ * color.
+ */
+public final class ManaCostParser {
+
+    public static final String COLOR_SYMBOLS = "WUBRG";
+    public static final String COLORLESS_SYMBOL = "C";
+    public static final int COLORLESS_MASK = 0;
+    public static final int ALL_COLORS_MASK = 0b11111;
+
+    private ManaCostParser() {
+    }
+
+    /**
+     * Calcula la máscara de colores de un coste de maná.
+     *
+     * @param manaCost Coste de maná, por ejemplo "{2}{W}{U/P}"
+     * @return Máscara de colores; 0 si es nulo o incoloro
+     */
+    public static int colorMask(String manaCost) {
+        if (manaCost == null || manaCost.isEmpty()) {
+            return COLORLESS_MASK;
+        }
+        int mask = 0;
+        int i = 0;
+        while (i < manaCost.length()) {
+            char c = manaCost.charAt(i);
+            if (c == '{') {
+                int end = manaCost.indexOf('}', i + 1);
+                if (end < 0) {
+                    end = manaCost.length();
+                }
+                // Cada parte de un símbolo híbrido aporta su color: {W/U}, {2/W}, {G/P}
+                for (String part : manaCost.substring(i + 1, end).split("/")) {
+                    if (part.length() == 1) {
+                        mask |= bitOf(part.charAt(0));
+                    }
+                }
+                i = end + 1;
+            } else {
+                mask |= bitOf(c);
+                i++;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Convierte símbolos de color (W, U, B, R, G o C) en una máscara.
+     * C equivale a la máscara vacía.
+     *
+     * @param symbols Símbolos de color
+     * @return Máscara con los colores indicados
+     * @throws IllegalArgumentException si algún símbolo no es un color válido
+     */
+    public static int maskOf(Collection<String> symbols) {
+        int mask = 0;
+        for (String symbol : symbols) {
+            String normalized = symbol.trim().toUpperCase(Locale.ROOT);
+            if (COLORLESS_SYMBOL.equals(normalized)) {
+                continue;
+            }
+            int bit = normalized.length() == 1 ? bitOf(normalized.charAt(0)) : 0;
+            if (bit == 0) {
+                throw new IllegalArgumentException("Invalid color symbol: " + symbol);
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Bit de un símbolo de color, o 0 si no es uno de W, U, B, R, G.
+     */
+    public static int bitOf(char symbol) {
+        int index = COLOR_SYMBOLS.indexOf(Character.toUpperCase(symbol));
+        return index < 0 ? 0 : 1 << index;
+    }
+}
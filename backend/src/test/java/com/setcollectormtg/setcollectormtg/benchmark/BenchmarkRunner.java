@@ -0,0 +1,45 @@
+package com.setcollectormtg.setcollectormtg.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lanza los benchmarks de importación con los profilers de asignación (gc) y
+ * de pico de heap, de modo que cada fase informa de cartas/s, bytes asignados
+ * por carta (gc.alloc.rate.norm) y MB de heap como máximo.
+ *
+ * Acepta los argumentos de línea de comandos de JMH; sin ellos ejecuta todos
+ * los benchmarks de la aplicación. Se ejecuta con el perfil benchmark de Maven:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="CardImportBenchmark -p cards=10000"
+ * </pre>
+ *
+ * Por defecto la base de datos es H2 en memoria en modo MySQL. Para medir
+ * contra un MySQL local (por ejemplo el de docker-compose) se añaden a
+ * benchmark.args las propiedades de conexión como argumentos de la JVM, con
+ * -jvmArgsAppend "-Dspring.datasource.url=... -Dspring.jpa.database-platform=...".
+ * El esquema se crea y se borra en cada ejecución, así que debe ser una base
+ * de datos desechable.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("com\\.setcollectormtg\\.setcollectormtg\\..*Benchmark");
+        }
+        options.addProfiler(GCProfiler.class);
+        options.addProfiler(PeakHeapProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
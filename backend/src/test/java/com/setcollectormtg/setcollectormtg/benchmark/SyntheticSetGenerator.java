@@ -0,0 +1,122 @@
+package com.setcollectormtg.setcollectormtg.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Genera archivos de set sintéticos con el formato de MTGJSON que lee
+ * CardImportService, para medir la importación con volúmenes conocidos.
+ *
+ * La salida depende solo del número de cartas y de la semilla, así que dos
+ * ejecuciones con los mismos parámetros producen el mismo archivo. Las cartas
+ * tienen nombres únicos, un scryfallId distinto cada una y una mezcla de
+ * rarezas, colores, tipos y textos parecida a la de un set real.
+ *
+ * Uso: SyntheticSetGenerator &lt;cartas&gt; &lt;archivo&gt; [semilla]
+ */
+public final class SyntheticSetGenerator {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] RARITIES = { "common", "common", "common", "common", "common", "uncommon",
+            "uncommon", "uncommon", "rare", "mythic" };
+    private static final String[] COLOR_SYMBOLS = { "W", "U", "B", "R", "G" };
+    private static final String[] TYPES = { "Creature — Human Wizard", "Creature — Elf Warrior",
+            "Creature — Dragon", "Instant", "Sorcery", "Enchantment", "Artifact", "Artifact — Equipment",
+            "Legendary Creature — Angel", "Land" };
+    private static final String[] NAME_WORDS = { "Ancient", "Blazing", "Crimson", "Drowned", "Ember", "Feral",
+            "Gilded", "Hollow", "Iron", "Jade", "Keen", "Lost", "Mire", "Night", "Oath", "Pale", "Quiet", "Rune",
+            "Storm", "Thorn", "Umbral", "Veiled", "Wild", "Zealous" };
+    private static final String[] TEXT_CLAUSES = { "Flying", "Trample", "Haste", "Vigilance", "Deathtouch",
+            "When this enters, draw a card.", "Destroy target creature.", "Counter target spell.",
+            "Target player mills three cards.", "Create a 1/1 white Soldier creature token.",
+            "You gain 3 life.", "Deal 2 damage to any target.", "Return target creature to its owner's hand.",
+            "Scry 2.", "Add one mana of any color." };
+
+    private SyntheticSetGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticSetGenerator <cards> <file> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        Path file = Paths.get(args[1]);
+        write(file, "SYN", Integer.parseInt(args[0]), seed);
+        System.out.println("Written " + args[0] + " cards to " + file.toAbsolutePath());
+    }
+
+    /**
+     * Escribe un set sintético en streaming, sin mantener las cartas en memoria.
+     *
+     * @param file    Archivo de salida
+     * @param setCode Código del set
+     * @param cards   Número de cartas
+     * @param seed    Semilla del generador
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    public static void write(Path file, String setCode, int cards, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (JsonGenerator json = new JsonFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("meta");
+            json.writeStringField("version", "synthetic");
+            json.writeNumberField("seed", seed);
+            json.writeEndObject();
+
+            json.writeObjectFieldStart("data");
+            json.writeStringField("code", setCode);
+            json.writeStringField("name", "Synthetic " + setCode);
+            json.writeStringField("releaseDate", "2024-01-01");
+            json.writeNumberField("totalSetSize", cards);
+            json.writeArrayFieldStart("cards");
+            for (int i = 0; i < cards; i++) {
+                writeCard(json, i, random);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeCard(JsonGenerator json, int number, Random random) throws IOException {
+        String type = TYPES[random.nextInt(TYPES.length)];
+        boolean land = type.equals("Land");
+        int generic = land ? 0 : random.nextInt(5);
+        StringBuilder manaCost = new StringBuilder();
+        if (generic > 0) {
+            manaCost.append('{').append(generic).append('}');
+        }
+        int colored = land ? 0 : 1 + random.nextInt(2);
+        for (int i = 0; i < colored; i++) {
+            manaCost.append('{').append(COLOR_SYMBOLS[random.nextInt(COLOR_SYMBOLS.length)]).append('}');
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            text.append(TEXT_CLAUSES[random.nextInt(TEXT_CLAUSES.length)]).append(i > 0 ? "\n" : "");
+        }
+
+        json.writeStartObject();
+        json.writeStringField("name", NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " "
+                + NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " " + number);
+        json.writeStringField("number", String.valueOf(number + 1));
+        json.writeStringField("rarity", RARITIES[random.nextInt(RARITIES.length)]);
+        json.writeNumberField("manaValue", (double) generic + colored);
+        json.writeStringField("manaCost", manaCost.toString());
+        json.writeStringField("type", type);
+        json.writeStringField("text", text.toString());
+        json.writeStringField("uuid", new UUID(random.nextLong(), random.nextLong()).toString());
+        json.writeObjectFieldStart("identifiers");
+        json.writeStringField("scryfallId", new UUID(random.nextLong(), random.nextLong()).toString());
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
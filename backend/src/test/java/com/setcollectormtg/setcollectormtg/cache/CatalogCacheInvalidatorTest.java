@@ -0,0 +1,69 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.setcollectormtg.setcollectormtg.dto.SetMtgCreateDto;
+import com.setcollectormtg.setcollectormtg.dto.SetMtgDto;
+import com.setcollectormtg.setcollectormtg.service.SetMtgService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CatalogCacheInvalidatorTest {
+
+    @Autowired
+    private SetMtgService setMtgService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void evictsTheChangedSetOnlyOnceTheTransactionCommits() {
+        SetMtgDto changed = setMtgService.createSet(createDto("CIA", "Invalidation A"));
+        setMtgService.createSet(createDto("CIB", "Invalidation B"));
+        setMtgService.getAllSets();
+        setMtgService.getSetById(changed.getSetId());
+        setMtgService.getSetByCode("CIA");
+        setMtgService.getSetByCode("CIB");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            setMtgService.updateSet(changed.getSetId(), createDto("CIC", "Invalidation C"));
+
+            // Hasta confirmar, otra lectura podría volver a cachear los datos anteriores
+            assertThat(cache(CatalogCacheConfig.ALL_SETS).get(SimpleKey.EMPTY)).isNotNull();
+            assertThat(cache(CatalogCacheConfig.SETS_BY_CODE).get("CIA")).isNotNull();
+        });
+
+        assertThat(cache(CatalogCacheConfig.ALL_SETS).get(SimpleKey.EMPTY)).isNull();
+        assertThat(cache(CatalogCacheConfig.SETS_BY_ID).get(changed.getSetId())).isNull();
+        assertThat(cache(CatalogCacheConfig.SETS_BY_CODE).get("CIA")).isNull();
+        assertThat(cache(CatalogCacheConfig.SETS_BY_CODE).get("CIB")).isNotNull();
+        assertThat(setMtgService.getSetByCode("CIC").getName()).isEqualTo("Invalidation C");
+        assertThat(setMtgService.getAllSets()).extracting(SetMtgDto::getSetCode)
+                .contains("CIB", "CIC")
+                .doesNotContain("CIA");
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private static SetMtgCreateDto createDto(String code, String name) {
+        SetMtgCreateDto dto = new SetMtgCreateDto();
+        dto.setSetCode(code);
+        dto.setName(name);
+        dto.setReleaseDate(LocalDate.of(2024, 3, 1));
+        return dto;
+    }
+}
@@ -0,0 +1,66 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogHttpCacheTest {
+
+    private final CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+    private final CatalogHttpCache httpCache = new CatalogHttpCache(catalogSnapshotService, Duration.ZERO,
+            Duration.ofMinutes(5));
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    void answersNotModifiedWithoutReadingTheBodyWhileTheVersionIsCurrent() {
+        when(catalogSnapshotService.catalogVersion()).thenReturn(3L);
+        ResponseEntity<String> first = get(null);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).isEqualTo("sets");
+        assertThat(first.getHeaders().getCacheControl()).contains("max-age=0", "s-maxage=300");
+        String etag = first.getHeaders().getETag();
+
+        ResponseEntity<String> revalidated = get(etag);
+
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getBody()).isNull();
+        assertThat(revalidated.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void servesTheBodyAgainOnceTheCatalogChanges() {
+        when(catalogSnapshotService.catalogVersion()).thenReturn(3L);
+        String etag = get(null).getHeaders().getETag();
+        when(catalogSnapshotService.catalogVersion()).thenReturn(4L);
+
+        ResponseEntity<String> changed = get(etag);
+
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(reads).hasValue(2);
+    }
+
+    private ResponseEntity<String> get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sets");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return httpCache.conditional(new ServletWebRequest(request, new MockHttpServletResponse()), () -> {
+            reads.incrementAndGet();
+            return "sets";
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.setcollectormtg.setcollectormtg.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogJsonCacheTest {
+
+    // Lo bastante grande para que se guarde la variante gzip
+    private static final List<String> SETS = Collections.nCopies(200, "Dominaria United");
+
+    private final CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+    private final CatalogJsonCache jsonCache = new CatalogJsonCache(new ObjectMapper(), catalogSnapshotService,
+            new CatalogHttpCache(catalogSnapshotService, Duration.ZERO, Duration.ZERO), DataSize.ofMegabytes(1));
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    void serializesOncePerCatalogVersion() throws IOException {
+        when(catalogSnapshotService.catalogVersion()).thenReturn(1L);
+        MockHttpServletResponse first = get(null, null);
+        MockHttpServletResponse second = get(null, null);
+
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(new ObjectMapper().readValue(first.getContentAsByteArray(), List.class)).isEqualTo(SETS);
+        assertThat(reads).hasValue(1);
+
+        when(catalogSnapshotService.catalogVersion()).thenReturn(2L);
+        get(null, null);
+
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void answersNotModifiedBeforeSerializing() throws IOException {
+        when(catalogSnapshotService.catalogVersion()).thenReturn(1L);
+
+        MockHttpServletResponse response = get(null, "\"unknown\", " + etagOf(get(null, null)));
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void servesTheGzipVariantWithItsOwnEtag() throws IOException {
+        when(catalogSnapshotService.catalogVersion()).thenReturn(1L);
+        MockHttpServletResponse plain = get(null, null);
+        MockHttpServletResponse gzip = get("gzip, deflate", null);
+
+        assertThat(gzip.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(etagOf(gzip)).isNotEqualTo(etagOf(plain));
+        assertThat(gzip.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo(plain.getContentAsString(StandardCharsets.UTF_8));
+        }
+        assertThat(get("gzip;q=0", null).getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(reads).hasValue(1);
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding, String ifNoneMatch) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sets");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jsonCache.write("sets", () -> {
+            reads.incrementAndGet();
+            return SETS;
+        }, request, response);
+        return response;
+    }
+
+    private static String etagOf(MockHttpServletResponse response) {
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,90 @@
+package com.setcollectormtg.setcollectormtg.enums;
+
+import org.junit.jupiter.api.Test;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportFileFormatTest {
+
+    private static final String JSON = "{\"data\": {\"code\": \"FMT\", \"cards\": []}}";
+
+    @Test
+    void detectsTheFormatFromTheFileExtension() {
+        assertThat(ImportFileFormat.fromFileName("dmu.json")).isEqualTo(ImportFileFormat.JSON);
+        assertThat(ImportFileFormat.fromFileName("AllPrintings.JSON.GZ")).isEqualTo(ImportFileFormat.GZIP);
+        assertThat(ImportFileFormat.fromFileName("AllPrintings.json.xz")).isEqualTo(ImportFileFormat.XZ);
+        assertThat(ImportFileFormat.fromFileName("AllPrintings.json.zip")).isEqualTo(ImportFileFormat.ZIP);
+
+        assertThatThrownBy(() -> ImportFileFormat.fromFileName("dmu.gz")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImportFileFormat.fromFileName("dmu.json.bz2"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImportFileFormat.fromFileName(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void opensEachFormatAsPlainJson() throws IOException {
+        assertThat(read(ImportFileFormat.JSON, bytes(JSON))).isEqualTo(JSON);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(bytes(JSON));
+        }
+        assertThat(read(ImportFileFormat.GZIP, gzip.toByteArray())).isEqualTo(JSON);
+
+        ByteArrayOutputStream xz = new ByteArrayOutputStream();
+        try (OutputStream out = new XZOutputStream(xz, new LZMA2Options())) {
+            out.write(bytes(JSON));
+        }
+        assertThat(read(ImportFileFormat.XZ, xz.toByteArray())).isEqualTo(JSON);
+    }
+
+    @Test
+    void opensTheFirstJsonEntryOfAZip() throws IOException {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("docs/"));
+            out.putNextEntry(new ZipEntry("README.txt"));
+            out.write(bytes("not json"));
+            out.putNextEntry(new ZipEntry("AllPrintings.json"));
+            out.write(bytes(JSON));
+            out.putNextEntry(new ZipEntry("Meta.json"));
+            out.write(bytes("{}"));
+        }
+
+        assertThat(read(ImportFileFormat.ZIP, zip.toByteArray())).isEqualTo(JSON);
+    }
+
+    @Test
+    void rejectsZipsWithoutJson() throws IOException {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("README.txt"));
+            out.write(bytes("not json"));
+        }
+
+        assertThatThrownBy(() -> read(ImportFileFormat.ZIP, zip.toByteArray())).isInstanceOf(IOException.class);
+    }
+
+    private static String read(ImportFileFormat format, byte[] content) throws IOException {
+        try (InputStream json = format.open(new ByteArrayInputStream(content))) {
+            return new String(json.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
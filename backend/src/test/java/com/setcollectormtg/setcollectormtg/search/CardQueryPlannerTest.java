@@ -0,0 +1,64 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CardQueryPlannerTest {
+
+    private final CardQueryPlanner planner = new CardQueryPlanner();
+
+    @Test
+    void ordersPredicatesByCost() {
+        assertThat(planner.compile("o:draw bolt mv<=2 e:dom").toString())
+                .isEqualTo("(set:dom mv<=2 name:bolt oracle:draw)");
+        assertThat(planner.compile("t:goblin (r:c and (c:r or s:m21))").toString())
+                .isEqualTo("(rarity:common (set:m21 or color:r) type:goblin)");
+        assertThat(planner.compile("--n=\"Sol Ring\"").toString()).isEqualTo("name=\"sol ring\"");
+    }
+
+    @Test
+    void cachesPlansByNormalizedText() {
+        CardQuery plan = planner.compile("t:elf  c:g");
+
+        assertThat(planner.compile(" T:ELF c:G ")).isSameAs(plan);
+        assertThat(planner.cachedPlans()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsWhitespaceInsideQuotesInTheCacheKey() {
+        CardQuery spaced = planner.compile("n=\"a  b\"");
+
+        assertThat(planner.compile("n=\"a b\"")).isNotSameAs(spaced);
+        assertThat(planner.compile("N=\"A  B\"")).isSameAs(spaced);
+        assertThat(planner.cachedPlans()).isEqualTo(2);
+    }
+
+    @Test
+    void readsFieldKeysIndependentlyOfTheDefaultLocale() {
+        Locale original = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertThat(new CardQueryPlanner().compile("RARITY:c EDITION:dom").toString())
+                    .isEqualTo("(rarity:common set:dom)");
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    @Test
+    void rejectsInvalidQueries() {
+        assertThatThrownBy(() -> planner.compile("foo:bar")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("(t:elf")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("n<bolt")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("r:shiny")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("c:xyz")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("   ")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("-")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("t:creature -")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.compile("t:creature --")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,298 @@
+package com.setcollectormtg.setcollectormtg.search;
+
+import com.setcollectormtg.setcollectormtg.dto.CardFacetsDto;
+import com.setcollectormtg.setcollectormtg.enums.CardSortField;
+import com.setcollectormtg.setcollectormtg.enums.ColorMatch;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.model.SetMtg;
+import com.setcollectormtg.setcollectormtg.repository.CardRepository;
+import com.setcollectormtg.setcollectormtg.util.ManaCostParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CardSearchIndexTest {
+
+    private CardSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        SetMtg dom = new SetMtg();
+        dom.setSetId(1L);
+        dom.setSetCode("DOM");
+
+        CardRepository cardRepository = mock(CardRepository.class);
+        when(cardRepository.findBatchWithSetAfter(anyLong(), any())).thenReturn(List.of(
+                card(1L, "Shivan Dragon", "Creature — Dragon", "rare", "{4}{R}{R}", 6.0, dom),
+                card(2L, "Lightning Bolt", "Instant", "common", "{R}", 1.0, dom),
+                card(3L, "Dragonlord Ojutai", "Legendary Creature — Elder Dragon", "mythic", "{3}{W}{U}", 5.0, dom),
+                card(4L, "Sol Ring", "Artifact", "uncommon", "{1}", 1.0, dom)));
+
+        index = new CardSearchIndex(cardRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void searchesBySubstringOfName() {
+        assertThat(ids(CardSearchCriteria.builder().name("drag").build())).containsExactly(1L, 3L);
+        assertThat(ids(CardSearchCriteria.builder().name("N DRAG").build())).containsExactly(1L);
+        assertThat(ids(CardSearchCriteria.builder().name("bolt x").build())).isEmpty();
+    }
+
+    @Test
+    void verifiesTrigramCandidatesAgainstCurrentValues() {
+        index.index(card(2L, "Chain Lightning", "Sorcery", "common", "{R}", 1.0, null));
+
+        assertThat(ids(CardSearchCriteria.builder().name("bolt").build())).isEmpty();
+        assertThat(ids(CardSearchCriteria.builder().name("lightning").build())).containsExactly(2L);
+        assertThat(ids(CardSearchCriteria.builder().name("ol").build())).containsExactly(4L);
+    }
+
+    @Test
+    void keepsTrigramsOfCardsWhoseNameAndTypeDoNotChange() {
+        SetMtg dom = new SetMtg();
+        dom.setSetId(1L);
+        dom.setSetCode("DOM");
+        for (int i = 0; i < 2000; i++) {
+            index.indexAll(List.of(card(4L, "Sol Ring", "Artifact", "uncommon", "{1}", 1.0, dom, "Tap: add " + i)));
+        }
+        assertThat(index.staleTextEntries()).isZero();
+
+        index.index(card(4L, "SOL RING", "ARTIFACT", "uncommon", "{1}", 1.0, dom));
+        assertThat(index.staleTextEntries()).isZero();
+
+        index.index(card(4L, "Mana Ring", "Artifact", "uncommon", "{1}", 1.0, dom));
+        assertThat(index.staleTextEntries()).isEqualTo(1);
+        assertThat(ids(CardSearchCriteria.builder().name("mana r").build())).containsExactly(4L);
+    }
+
+    @Test
+    void compressesPostingsOfEachIndexedBatch() {
+        index.indexAll(List.of(
+                card(5L, "Llanowar Elves", "Creature — Elf Druid", "common", "{G}", 1.0, null),
+                card(6L, "Elvish Mystic", "Creature — Elf Druid", "common", "{G}", 1.0, null)));
+
+        assertThat(index.hasUncompressedTextPostings()).isFalse();
+        assertThat(ids(CardSearchCriteria.builder().cardType("elf druid").build())).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void combinesExactAndRangeFilters() {
+        assertThat(ids(CardSearchCriteria.builder().cardType("creature").manaCostMax(5).build()))
+                .containsExactly(3L);
+        assertThat(ids(CardSearchCriteria.builder().rarity("COMMON").setCode("dom").build()))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void filtersByColorMask() {
+        int white = ManaCostParser.bitOf('W');
+        int blue = ManaCostParser.bitOf('U');
+        int red = ManaCostParser.bitOf('R');
+
+        assertThat(ids(CardSearchCriteria.builder().colorMask(white | blue).build())).containsExactly(3L);
+        assertThat(ids(CardSearchCriteria.builder().colorMask(ManaCostParser.COLORLESS_MASK).build()))
+                .containsExactly(4L);
+        assertThat(ids(CardSearchCriteria.builder().colorMask(red).colorMatch(ColorMatch.EXACT).build()))
+                .containsExactly(1L, 2L);
+        assertThat(ids(CardSearchCriteria.builder().colorMask(white | blue).colorMatch(ColorMatch.AT_MOST).build()))
+                .containsExactly(3L, 4L);
+    }
+
+    @Test
+    void appliesWritesOutsideTransactionImmediately() {
+        index.remove(2L);
+        Card updated = card(4L, "Sol Ring", "Artifact", "rare", "{1}", 1.0, null);
+        index.index(updated);
+
+        assertThat(ids(CardSearchCriteria.builder().name("bolt").build())).isEmpty();
+        assertThat(ids(CardSearchCriteria.builder().rarity("rare").build())).containsExactly(1L, 4L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void pagesWithCursorInBothDirections() {
+        CardSearchCriteria all = CardSearchCriteria.builder().build();
+
+        List<CardDocument> first = index.page(all, CardSortField.MANA_VALUE, false, null, 2);
+        assertThat(first).extracting(CardDocument::getCardId).containsExactly(2L, 4L);
+        CardCursor cursor = CardCursor.decode(
+                CardCursor.after(first.get(1), CardSortField.MANA_VALUE, false).encode(),
+                CardSortField.MANA_VALUE, false);
+        assertThat(index.page(all, CardSortField.MANA_VALUE, false, cursor, 2))
+                .extracting(CardDocument::getCardId).containsExactly(3L, 1L);
+
+        List<CardDocument> descending = index.page(all, CardSortField.NAME, true, null, 2);
+        assertThat(descending).extracting(CardDocument::getCardId).containsExactly(4L, 1L);
+        assertThat(index.page(all, CardSortField.NAME, true,
+                CardCursor.after(descending.get(1), CardSortField.NAME, true), 5))
+                .extracting(CardDocument::getCardId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void countsFacetsOfTheResult() {
+        CardFacets facets = new CardFacets();
+        index.search(CardSearchCriteria.builder().manaCostMax(5).build(), facets);
+        CardFacetsDto counts = facets.toDto();
+
+        assertThat(counts.getRarity()).containsExactly(entry("common", 1L), entry("mythic", 1L),
+                entry("uncommon", 1L));
+        assertThat(counts.getColor()).containsEntry("W", 1L).containsEntry("R", 1L).containsEntry("G", 0L)
+                .containsEntry("C", 1L);
+        assertThat(counts.getSet()).containsExactly(entry("DOM", 3L));
+        assertThat(counts.getManaValue()).containsEntry("1", 2L).containsEntry("5", 1L).containsEntry("7+", 0L);
+    }
+
+    @Test
+    void suggestsNewestPrintingByPrefix() {
+        SetMtg m21 = new SetMtg();
+        m21.setSetId(2L);
+        m21.setSetCode("M21");
+        m21.setReleaseDate(LocalDate.of(2020, 7, 3));
+        index.indexAll(List.of(
+                card(5L, "Shivan Dragon", "Creature — Dragon", "rare", "{4}{R}{R}", 6.0, m21),
+                card(6L, "Shock", "Instant", "common", "{R}", 1.0, null)));
+
+        assertThat(index.suggest("sh", 10)).extracting(CardDocument::getCardId).containsExactly(5L, 6L);
+        assertThat(index.suggest("SHO", 10)).extracting(CardDocument::getCardId).containsExactly(6L);
+        assertThat(index.suggest("x", 10)).isEmpty();
+
+        index.remove(5L);
+        assertThat(index.suggest("sh", 10)).extracting(CardDocument::getCardId).containsExactly(6L, 1L);
+    }
+
+    @Test
+    void keepsNameTrieInSyncWithRenamesAndDeletes() {
+        index.index(card(1L, "Skivan Dragon", "Creature — Dragon", "rare", "{4}{R}{R}", 6.0, null));
+
+        assertThat(index.suggest("shiv", 10)).isEmpty();
+        assertThat(index.suggest("sk", 10)).extracting(CardDocument::getCardId).containsExactly(1L);
+        assertThat(index.searchFuzzy("shivan dragon", 1, 10)).extracting(CardDocument::getCardId)
+                .containsExactly(1L);
+
+        index.remove(4L);
+        assertThat(index.suggest("s", 10)).extracting(CardDocument::getCardId).containsExactly(1L);
+        assertThat(index.searchFuzzy("sol ring", 2, 10)).isEmpty();
+    }
+
+    @Test
+    void incrementalNameTrieMatchesAFreshBuild() {
+        Random random = new Random(42);
+        String[] names = { "a", "ab", "abc", "abd", "b", "ba", "bab", "bb" };
+        SetMtg[] sets = new SetMtg[3];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = new SetMtg();
+            sets[i].setSetId(10L + i);
+            sets[i].setSetCode("S" + i);
+            sets[i].setReleaseDate(LocalDate.of(2000 + i, 1, 1));
+        }
+        Map<Long, Card> current = new TreeMap<>();
+        for (int step = 0; step < 2000; step++) {
+            long id = 100 + random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                current.remove(id);
+            } else {
+                Card card = card(id, names[random.nextInt(names.length)], "Instant", "common", "{R}", 1.0,
+                        sets[random.nextInt(sets.length)]);
+                index.index(card);
+                current.put(id, card);
+            }
+        }
+
+        CardRepository repository = mock(CardRepository.class);
+        index.remove(1L);
+        index.remove(2L);
+        index.remove(3L);
+        index.remove(4L);
+        when(repository.findBatchWithSetAfter(anyLong(), any())).thenReturn(List.copyOf(current.values()));
+        CardSearchIndex fresh = new CardSearchIndex(repository);
+        fresh.rebuild();
+        for (String prefix : List.of("", "a", "ab", "abc", "b", "ba", "bb", "c")) {
+            assertThat(index.suggest(prefix, 20)).extracting(CardDocument::getCardId)
+                    .as(prefix).isEqualTo(fresh.suggest(prefix, 20).stream().map(CardDocument::getCardId).toList());
+        }
+        assertThat(index.searchFuzzy("ab", 1, 20)).extracting(CardDocument::getCardId)
+                .isEqualTo(fresh.searchFuzzy("ab", 1, 20).stream().map(CardDocument::getCardId).toList());
+    }
+
+    @Test
+    void findsNamesWithinEditDistance() {
+        assertThat(index.searchFuzzy("Lightening Bolt", 2, 10)).extracting(CardDocument::getCardId)
+                .containsExactly(2L);
+        assertThat(index.searchFuzzy("sol rnig", 2, 10)).extracting(CardDocument::getCardId).containsExactly(4L);
+        assertThat(index.searchFuzzy("sol rnig", 1, 10)).isEmpty();
+
+        index.remove(2L);
+        assertThat(index.searchFuzzy("lightning bolt", 2, 10)).isEmpty();
+    }
+
+    @Test
+    void ranksOracleTextMatchesWithBm25() {
+        index.indexAll(List.of(
+                card(5L, "Divination", "Sorcery", "common", "{2}{U}", 3.0, null, "Draw two cards."),
+                card(6L, "Opt", "Instant", "common", "{U}", 1.0, null, "Scry 1. Draw a card."),
+                card(7L, "Serra Angel", "Creature — Angel", "uncommon", "{3}{W}{W}", 5.0, null,
+                        "Flying, vigilance")));
+
+        assertThat(ids(CardSearchCriteria.builder().oracleText("draw").build())).containsExactly(5L, 6L);
+        assertThat(ids(CardSearchCriteria.builder().oracleText("DRAW card").build())).containsExactly(6L);
+        assertThat(ids(CardSearchCriteria.builder().oracleText("\"card draw\"").build())).isEmpty();
+        assertThat(ids(CardSearchCriteria.builder().oracleText("flying").rarity("common").build())).isEmpty();
+
+        index.index(card(7L, "Serra Angel", "Creature — Angel", "uncommon", "{3}{W}{W}", 5.0, null, "Vigilance"));
+        assertThat(ids(CardSearchCriteria.builder().oracleText("flying").build())).isEmpty();
+    }
+
+    @Test
+    void executesQueryPlans() {
+        CardQueryPlanner planner = new CardQueryPlanner();
+
+        assertThat(queryIds(planner, "t:dragon r>=rare")).containsExactly(1L, 3L);
+        assertThat(queryIds(planner, "t:creature -c:r")).containsExactly(3L);
+        assertThat(queryIds(planner, "mv<2 (r:c or n=\"sol ring\")")).containsExactly(2L, 4L);
+        assertThat(queryIds(planner, "c<=wur mv>=5 s:dom")).containsExactly(1L, 3L);
+        assertThat(queryIds(planner, "c<=ur mv>=5")).containsExactly(1L);
+        assertThat(queryIds(planner, "c:c")).containsExactly(4L);
+        assertThat(queryIds(planner, "set:m21")).isEmpty();
+    }
+
+    private List<Long> queryIds(CardQueryPlanner planner, String query) {
+        return index.search(planner.compile(query)).stream().map(CardDocument::getCardId).toList();
+    }
+
+    private List<Long> ids(CardSearchCriteria criteria) {
+        return index.search(criteria).stream().map(CardDocument::getCardId).toList();
+    }
+
+    private static Card card(Long id, String name, String type, String rarity, String manaCost, Double manaValue,
+            SetMtg setMtg) {
+        return card(id, name, type, rarity, manaCost, manaValue, setMtg, null);
+    }
+
+    private static Card card(Long id, String name, String type, String rarity, String manaCost, Double manaValue,
+            SetMtg setMtg, String oracleText) {
+        Card card = new Card();
+        card.setOracleText(oracleText);
+        card.setCardId(id);
+        card.setName(name);
+        card.setCardType(type);
+        card.setRarity(rarity);
+        card.setManaCost(manaCost);
+        card.setManaValue(manaValue);
+        card.setSetMtg(setMtg);
+        return card;
+    }
+}
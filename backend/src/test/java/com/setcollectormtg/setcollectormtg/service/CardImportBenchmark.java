@@ -0,0 +1,201 @@
+package com.setcollectormtg.setcollectormtg.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.setcollectormtg.setcollectormtg.SetCollectorMtgApplication;
+import com.setcollectormtg.setcollectormtg.benchmark.SyntheticSetGenerator;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.model.SetMtg;
+import com.setcollectormtg.setcollectormtg.repository.CardBatchRepository;
+import com.setcollectormtg.setcollectormtg.repository.SetMtgRepository;
+import com.setcollectormtg.setcollectormtg.search.CardSearchIndex;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks JMH de las fases de la importación de un set sintético de 1k, 10k
+ * y 100k cartas:
+ * <ul>
+ * <li>parse: lectura en streaming del archivo y un JsonNode por carta</li>
+ * <li>map: conversión de los JsonNode en entidades Card, con su huella</li>
+ * <li>persist: inserción por lotes JDBC en bloques de 500 cartas, cada uno en
+ * su transacción</li>
+ * <li>importNewSet: importSetFromJson completo con la tabla de cartas vacía</li>
+ * <li>reimportUnchangedSet: importSetFromJson de un set ya importado, donde
+ * todas las cartas se descartan por su huella</li>
+ * </ul>
+ * El contador cards da las cartas por segundo de cada fase. Se ejecutan con
+ * BenchmarkRunner, que añade los profilers de asignación y de pico de heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class CardImportBenchmark {
+
+    private static final String SET_CODE = "SYN";
+    private static final int CHUNK_SIZE = 500;
+
+    @Param({ "1000", "10000", "100000" })
+    public int cards;
+
+    private ConfigurableApplicationContext context;
+    private CardImportService cardImportService;
+    private CardBatchRepository cardBatchRepository;
+    private CardSearchIndex cardSearchIndex;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Path setFile;
+    private SetMtg setMtg;
+    private List<JsonNode> cardNodes;
+    private List<Card> mappedCards;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        setFile = Files.createTempFile("synthetic-set-", ".json");
+        SyntheticSetGenerator.write(setFile, SET_CODE, cards, SyntheticSetGenerator.DEFAULT_SEED);
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(SetCollectorMtgApplication.class).run(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.com.setcollectormtg=WARN",
+                "--app.jwt.secret=benchmarkSecretKey0123456789012345678901234567890123456789012345",
+                "--app.jwt.expiration=3600000");
+        cardImportService = context.getBean(CardImportService.class);
+        cardBatchRepository = context.getBean(CardBatchRepository.class);
+        cardSearchIndex = context.getBean(CardSearchIndex.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        SetMtg set = new SetMtg();
+        set.setSetCode("BNC");
+        set.setName("Benchmark persist set");
+        setMtg = transactionTemplate.execute(status -> context.getBean(SetMtgRepository.class).save(set));
+
+        cardNodes = new ArrayList<>(cards);
+        readCards(cardNodes::add);
+        mappedCards = new ArrayList<>(cards);
+        for (JsonNode node : cardNodes) {
+            mappedCards.add(cardImportService.mapJsonToCard(node, setMtg));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(setFile);
+    }
+
+    /**
+     * Cartas procesadas, que JMH divide por el tiempo de la iteración.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CardCounter {
+        public long cards;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            cards = 0;
+        }
+    }
+
+    /**
+     * Deja la tabla de cartas y el índice vacíos antes de cada invocación, para
+     * que todas las cartas sean nuevas.
+     */
+    @State(Scope.Thread)
+    public static class EmptyCardTable {
+
+        @Setup(Level.Invocation)
+        public void clear(CardImportBenchmark benchmark) {
+            benchmark.jdbcTemplate.update("DELETE FROM card");
+            benchmark.cardSearchIndex.rebuild();
+            benchmark.mappedCards.forEach(card -> card.setCardId(null));
+        }
+    }
+
+    @Benchmark
+    public void parse(CardCounter counter, Blackhole blackhole) throws IOException {
+        counter.cards += readCards(blackhole::consume);
+    }
+
+    @Benchmark
+    public void map(CardCounter counter, Blackhole blackhole) {
+        for (JsonNode node : cardNodes) {
+            blackhole.consume(cardImportService.mapJsonToCard(node, setMtg));
+        }
+        counter.cards += cardNodes.size();
+    }
+
+    @Benchmark
+    public void persist(EmptyCardTable table, CardCounter counter) {
+        for (int from = 0; from < mappedCards.size(); from += CHUNK_SIZE) {
+            List<Card> chunk = mappedCards.subList(from, Math.min(from + CHUNK_SIZE, mappedCards.size()));
+            transactionTemplate.executeWithoutResult(status -> cardBatchRepository.insertAll(chunk));
+        }
+        counter.cards += mappedCards.size();
+    }
+
+    @Benchmark
+    public Object importNewSet(EmptyCardTable table, CardCounter counter) throws IOException {
+        counter.cards += cards;
+        return cardImportService.importSetFromJson(setFile.toString());
+    }
+
+    @Benchmark
+    public Object reimportUnchangedSet(CardCounter counter) throws IOException {
+        counter.cards += cards;
+        return cardImportService.importSetFromJson(setFile.toString());
+    }
+
+    private int readCards(Consumer<JsonNode> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(setFile.toFile())) {
+            while (parser.nextToken() != null) {
+                if (parser.currentToken() == JsonToken.FIELD_NAME && "cards".equals(parser.currentName())
+                        && parser.nextToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(objectMapper.readTree(parser));
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
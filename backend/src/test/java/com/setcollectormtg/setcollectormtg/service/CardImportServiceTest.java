@@ -0,0 +1,202 @@
+package com.setcollectormtg.setcollectormtg.service;
+
+import com.setcollectormtg.setcollectormtg.dto.ImportRejectionDto;
+import com.setcollectormtg.setcollectormtg.dto.ImportResultDto;
+import com.setcollectormtg.setcollectormtg.model.Card;
+import com.setcollectormtg.setcollectormtg.model.SetMtg;
+import com.setcollectormtg.setcollectormtg.repository.CardRepository;
+import com.setcollectormtg.setcollectormtg.repository.SetMtgRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CardImportServiceTest {
+
+    @Autowired
+    private CardImportService cardImportService;
+
+    @Autowired
+    private SetMtgRepository setMtgRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reimportsOverCardsSavedWithoutScryfallIdWithoutDuplicatingThem() throws IOException {
+        SetMtg set = new SetMtg();
+        set.setSetCode("IDM");
+        set.setName("Idempotent");
+        set = setMtgRepository.save(set);
+        Card legacy = new Card();
+        legacy.setName("Alpha Knight");
+        legacy.setRarity("common");
+        legacy.setCardType("Creature — Knight");
+        legacy.setSetMtg(set);
+        Long legacyId = cardRepository.save(legacy).getCardId();
+
+        Path file = tempDir.resolve("idm.json");
+        Files.writeString(file, """
+                {"data": {"code": "IDM", "name": "Idempotent", "releaseDate": "2024-01-05", "cards": [
+                  {"name": "Alpha Knight", "rarity": "common", "manaValue": 2, "manaCost": "{1}{W}",
+                   "type": "Creature — Knight", "text": "Vigilance",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000001"}},
+                  {"name": "Beta Bolt", "rarity": "common", "manaValue": 1, "manaCost": "{R}",
+                   "type": "Instant", "text": "Deal 3 damage.",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000002"}}
+                ]}}
+                """);
+
+        ImportResultDto first = cardImportService.importSetFromJson(file.toString());
+        ImportResultDto second = cardImportService.importSetFromJson(file.toString());
+
+        assertThat(first.getInserted()).isEqualTo(1);
+        assertThat(first.getUpdated()).isEqualTo(1);
+        assertThat(second.getInserted()).isZero();
+        assertThat(second.getUpdated()).isZero();
+        assertThat(second.getUnchanged()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card WHERE set_id = ?", Integer.class,
+                set.getSetId())).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT scryfall_id FROM card WHERE card_id = ?", String.class,
+                legacyId)).isEqualTo("00000000-0000-0000-0000-000000000001");
+    }
+
+    @Test
+    void importsDumpMeasuringProgressInFileBytes() throws IOException {
+        Path file = tempDir.resolve("AllPrintings.json");
+        Files.writeString(file, """
+                {"meta": {"version": "5"}, "data": {
+                  "DP1": {"code": "DP1", "name": "Dump One", "cards": {"unexpected": {"name": "Not A Card"}},
+                          "tokens": []},
+                  "DP2": {"code": "DP2", "name": "Dump Two", "cards": [
+                    {"name": "Gamma Golem", "rarity": "uncommon", "manaValue": 4, "manaCost": "{4}",
+                     "type": "Artifact Creature — Golem",
+                     "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000003"}}
+                  ]}
+                }}
+                """);
+        ImportProgress progress = new ImportProgress();
+
+        ImportResultDto result = cardImportService.importAllPrintings(file.toString(), progress);
+
+        assertThat(result.getSets()).isEqualTo(2);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getRejected()).isZero();
+        assertThat(progress.getCardsTotal()).isNull();
+        assertThat(progress.getBytesTotal()).isEqualTo(Files.size(file));
+        assertThat(progress.getBytesRead()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    void rejectsInvalidCardsAndKeepsTheRestOfTheChunk() throws IOException {
+        Path file = tempDir.resolve("rej.json");
+        Files.writeString(file, """
+                {"data": {"code": "REJ", "name": "Rejections", "releaseDate": "2024-02-09", "cards": [
+                  {"name": "Delta Drake", "rarity": "common", "manaValue": 3, "manaCost": "{2}{U}",
+                   "type": "Creature — Drake",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000004"}},
+                  {"rarity": "common", "type": "Instant",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000005"}},
+                  {"name": "Epsilon Elk", "rarity": "%s", "manaValue": 2, "manaCost": "{1}{G}",
+                   "type": "Creature — Elk",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000006"}},
+                  {"name": "Zeta Zombie", "rarity": "common", "manaValue": 2, "manaCost": "{1}{B}",
+                   "type": "Creature — Zombie",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000007"}}
+                ]}}
+                """.formatted("x".repeat(300)));
+
+        ImportResultDto result = cardImportService.importSetFromJson(file.toString());
+
+        // La carta sin nombre se descarta al mapear; la de rareza demasiado larga, al reintentar el bloque
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getRejections()).extracting(ImportRejectionDto::getPointer)
+                .containsExactlyInAnyOrder("/data/cards/1", "/data/cards/2");
+        assertThat(result.getRejections()).filteredOn(rejection -> "/data/cards/2".equals(rejection.getPointer()))
+                .extracting(ImportRejectionDto::getName)
+                .containsExactly("Epsilon Elk");
+        assertThat(jdbcTemplate.queryForList("SELECT c.name FROM card c JOIN set_mtg s ON s.set_id = c.set_id"
+                + " WHERE s.set_code = 'REJ' ORDER BY c.name", String.class))
+                .containsExactly("Delta Drake", "Zeta Zombie");
+    }
+
+    @Test
+    void importsEachFaceOfAMultiFacedCardOnceAndReimportsThemUnchanged() throws IOException {
+        Path file = tempDir.resolve("mfc.json");
+        Files.writeString(file, """
+                {"data": {"code": "MFC", "name": "Many Faces", "releaseDate": "2024-04-19", "cards": [
+                  {"name": "Brave Knight // Heroic Charge", "faceName": "Brave Knight", "side": "a",
+                   "rarity": "uncommon", "manaValue": 2, "manaCost": "{1}{W}", "type": "Creature — Knight",
+                   "text": "Vigilance", "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000008"}},
+                  {"name": "Brave Knight // Heroic Charge", "faceName": "Heroic Charge", "side": "b",
+                   "rarity": "uncommon", "manaValue": 2, "manaCost": "{W}", "type": "Sorcery — Adventure",
+                   "text": "Creatures you control get +1/+1.",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000008"}}
+                ]}}
+                """);
+
+        ImportResultDto first = cardImportService.importSetFromJson(file.toString());
+        ImportResultDto second = cardImportService.importSetFromJson(file.toString());
+
+        assertThat(first.getInserted()).isEqualTo(2);
+        assertThat(second.getInserted()).isZero();
+        assertThat(second.getUpdated()).isZero();
+        assertThat(second.getUnchanged()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT c.face FROM card c JOIN set_mtg s ON s.set_id = c.set_id"
+                + " WHERE s.set_code = 'MFC' ORDER BY c.face", String.class)).containsExactly("a", "b");
+    }
+
+    @Test
+    void assignsFacesToMultiFacedCardsSavedWithoutThem() throws IOException {
+        SetMtg set = new SetMtg();
+        set.setSetCode("LFC");
+        set.setName("Legacy Faces");
+        set = setMtgRepository.save(set);
+        for (int i = 0; i < 2; i++) {
+            Card legacy = new Card();
+            legacy.setName("Day Watcher // Night Stalker");
+            legacy.setRarity("rare");
+            legacy.setCardType("Creature — Human");
+            legacy.setScryfallId("00000000-0000-0000-0000-000000000009");
+            legacy.setSetMtg(set);
+            cardRepository.save(legacy);
+        }
+
+        Path file = tempDir.resolve("lfc.json");
+        Files.writeString(file, """
+                {"data": {"code": "LFC", "name": "Legacy Faces", "releaseDate": "2024-05-03", "cards": [
+                  {"name": "Day Watcher // Night Stalker", "faceName": "Day Watcher", "side": "a",
+                   "rarity": "rare", "manaValue": 3, "manaCost": "{2}{G}", "type": "Creature — Human",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000009"}},
+                  {"name": "Day Watcher // Night Stalker", "faceName": "Night Stalker", "side": "b",
+                   "rarity": "rare", "manaValue": 3, "type": "Creature — Werewolf",
+                   "identifiers": {"scryfallId": "00000000-0000-0000-0000-000000000009"}}
+                ]}}
+                """);
+
+        ImportResultDto first = cardImportService.importSetFromJson(file.toString());
+        ImportResultDto second = cardImportService.importSetFromJson(file.toString());
+
+        assertThat(first.getInserted()).isZero();
+        assertThat(first.getUpdated()).isEqualTo(2);
+        assertThat(second.getUnchanged()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT face FROM card WHERE set_id = ? ORDER BY card_id",
+                String.class, set.getSetId())).containsExactly("a", "b");
+    }
+}
@@ -0,0 +1,155 @@
+package com.setcollectormtg.setcollectormtg.service;
+
+import com.setcollectormtg.setcollectormtg.dto.UploadSessionDto;
+import com.setcollectormtg.setcollectormtg.exception.ResourceNotFoundException;
+import com.setcollectormtg.setcollectormtg.exception.UploadOffsetMismatchException;
+import com.setcollectormtg.setcollectormtg.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.mock;
+
+class UploadSessionServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private final ImportJobService importJobService = mock(ImportJobService.class);
+    private UploadSessionService service;
+
+    @BeforeEach
+    void createService() {
+        service = newService(Duration.ofHours(24));
+    }
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void rollsBackChunksWithAChecksumMismatch() throws IOException {
+        UploadSessionDto upload = service.initiate("dmu.json", false, null);
+        byte[] first = bytes("{\"data\":");
+        service.appendChunk(upload.getUploadId(), 0, new ByteArrayInputStream(first), crc32c(first));
+
+        byte[] second = bytes("{\"cards\":[]}}");
+        assertThatThrownBy(() -> service.appendChunk(upload.getUploadId(), first.length,
+                new ByteArrayInputStream(second), "deadbeef"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("checksum mismatch");
+
+        assertThat(service.getSession(upload.getUploadId()).getOffset()).isEqualTo(first.length);
+        assertThat(Files.size(uploadFile(upload))).isEqualTo(first.length);
+    }
+
+    @Test
+    void truncatesChunksCutOffMidwayAndResumesFromTheAcknowledgedOffset() throws IOException {
+        UploadSessionDto upload = service.initiate("dmu.json", false, null);
+        byte[] first = bytes("{\"data\":");
+        service.appendChunk(upload.getUploadId(), 0, new ByteArrayInputStream(first), crc32c(first));
+
+        byte[] second = bytes("{\"cards\":[]}}");
+        InputStream cutOff = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read == 4) {
+                    throw new IOException("Connection reset");
+                }
+                return second[read++];
+            }
+        };
+        assertThatThrownBy(() -> service.appendChunk(upload.getUploadId(), first.length, cutOff, crc32c(second)))
+                .isInstanceOf(IOException.class);
+        assertThat(Files.size(uploadFile(upload))).isEqualTo(first.length);
+
+        UploadSessionDto resumed = service.appendChunk(upload.getUploadId(), first.length,
+                new ByteArrayInputStream(second), crc32c(second));
+
+        assertThat(resumed.getOffset()).isEqualTo(first.length + second.length);
+        assertThat(Files.readString(uploadFile(upload))).isEqualTo("{\"data\":{\"cards\":[]}}");
+    }
+
+    @Test
+    void rejectsChunksAtAnotherOffsetWithAConflict() throws IOException {
+        UploadSessionDto upload = service.initiate("dmu.json", false, null);
+        byte[] chunk = bytes("{}");
+
+        UploadOffsetMismatchException mismatch = catchThrowableOfType(UploadOffsetMismatchException.class,
+                () -> service.appendChunk(upload.getUploadId(), 5, new ByteArrayInputStream(chunk),
+                        crc32c(chunk)));
+
+        assertThat(mismatch.getExpectedOffset()).isZero();
+        var response = new GlobalExceptionHandler().handleUploadOffsetMismatchException(mismatch,
+                new ServletWebRequest(new MockHttpServletRequest("PUT", "/api/admin/uploads")));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().getErrors()).containsEntry("offset", "0");
+    }
+
+    @Test
+    void prunesUploadsIdleForLongerThanTheTtl() throws IOException, InterruptedException {
+        service.shutdown();
+        service = newService(Duration.ofMillis(1));
+        UploadSessionDto upload = service.initiate("dmu.json", false, null);
+        Path file = uploadFile(upload);
+        Thread.sleep(10);
+
+        service.pruneExpiredSessions();
+
+        assertThat(file).doesNotExist();
+        assertThatThrownBy(() -> service.getSession(upload.getUploadId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void deletesUploadFilesLeftByAPreviousRun() throws IOException {
+        Path leftover = Files.writeString(uploadDir.resolve("0b5e1c2a-leftover.json.gz"), "partial");
+        Path unrelated = Files.writeString(uploadDir.resolve("notes.txt"), "keep");
+        UploadSessionDto live = service.initiate("dmu.json", false, null);
+
+        service.deleteLeftoverFiles();
+
+        assertThat(leftover).doesNotExist();
+        assertThat(unrelated).exists();
+        assertThat(uploadFile(live)).exists();
+    }
+
+    private UploadSessionService newService(Duration uploadTtl) {
+        return new UploadSessionService(importJobService, uploadDir.toString(), DataSize.ofMegabytes(1),
+                uploadTtl, Duration.ofMinutes(15));
+    }
+
+    private Path uploadFile(UploadSessionDto upload) {
+        return uploadDir.resolve(upload.getUploadId() + ".json");
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String crc32c(byte[] data) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(data);
+        return Long.toHexString(checksum.getValue());
+    }
+}
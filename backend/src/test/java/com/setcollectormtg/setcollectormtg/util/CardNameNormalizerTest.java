@@ -0,0 +1,35 @@
+package com.setcollectormtg.setcollectormtg.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardNameNormalizerTest {
+
+    @Test
+    void removesAccentsAndExpandsLigatures() {
+        assertThat(CardNameNormalizer.sortKey("Lim-Dûl the Necromancer")).isEqualTo("lim dul the necromancer");
+        assertThat(CardNameNormalizer.sortKey("Æther Vial")).isEqualTo("aether vial");
+        assertThat(CardNameNormalizer.sortKey("Jötun Grunt")).isEqualTo("jotun grunt");
+    }
+
+    @Test
+    void collapsesPunctuationIntoSingleSpaces() {
+        assertThat(CardNameNormalizer.sortKey("Urza's Saga")).isEqualTo("urzas saga");
+        assertThat(CardNameNormalizer.sortKey("  Fire // Ice  ")).isEqualTo("fire ice");
+        assertThat(CardNameNormalizer.sortKey("???")).isEmpty();
+        assertThat(CardNameNormalizer.sortKey(null)).isEmpty();
+    }
+
+    @Test
+    void ordersAccentedNamesWithTheirPlainSpelling() {
+        List<String> sorted = Stream.of("Aetherize", "Æther Vial", "Lim-Dûl's Vault", "Lightning Bolt")
+                .sorted((a, b) -> CardNameNormalizer.sortKey(a).compareTo(CardNameNormalizer.sortKey(b)))
+                .toList();
+
+        assertThat(sorted).containsExactly("Æther Vial", "Aetherize", "Lightning Bolt", "Lim-Dûl's Vault");
+    }
+}
@@ -0,0 +1,42 @@
+package com.setcollectormtg.setcollectormtg.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ManaCostParserTest {
+
+    @Test
+    void parsesBracedSymbols() {
+        assertThat(ManaCostParser.colorMask("{4}{R}{R}")).isEqualTo(ManaCostParser.bitOf('R'));
+        assertThat(ManaCostParser.colorMask("{X}{W}{U}{B}{R}{G}")).isEqualTo(ManaCostParser.ALL_COLORS_MASK);
+    }
+
+    @Test
+    void parsesHybridAndPhyrexianSymbols() {
+        assertThat(ManaCostParser.colorMask("{W/U}")).isEqualTo(ManaCostParser.bitOf('W') | ManaCostParser.bitOf('U'));
+        assertThat(ManaCostParser.colorMask("{2/B}{G/P}")).isEqualTo(ManaCostParser.bitOf('B') | ManaCostParser.bitOf('G'));
+    }
+
+    @Test
+    void treatsGenericColorlessAndSnowAsNoColor() {
+        assertThat(ManaCostParser.colorMask("{3}{C}{S}")).isZero();
+        assertThat(ManaCostParser.colorMask("")).isZero();
+        assertThat(ManaCostParser.colorMask(null)).isZero();
+    }
+
+    @Test
+    void parsesUnbracedCosts() {
+        assertThat(ManaCostParser.colorMask("2WW")).isEqualTo(ManaCostParser.bitOf('W'));
+    }
+
+    @Test
+    void buildsMaskFromSymbols() {
+        assertThat(ManaCostParser.maskOf(List.of("w", " U"))).isEqualTo(ManaCostParser.bitOf('W') | ManaCostParser.bitOf('U'));
+        assertThat(ManaCostParser.maskOf(List.of("C"))).isZero();
+        assertThatThrownBy(() -> ManaCostParser.maskOf(List.of("X"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}